@@ -0,0 +1,118 @@
+package thao.matchle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks building, loading and querying corpora, and matching a guess against a whole corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CorpusBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int corpusSize;
+
+    @Param({"5", "7"})
+    public int wordSize;
+
+    private NGram[] words;
+    private NGram[] misses;
+    private Corpus corpus;
+    private Path wordList;
+    private Path corpusFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        words = Words.random(corpusSize, wordSize, 1);
+        corpus = Corpus.Builder.empty(wordSize).addAll(Arrays.asList(words)).build();
+        // Words of another seed are almost never in the corpus
+        misses = Arrays.stream(Words.random(1024, wordSize, 2)).filter(n -> !corpus.contains(n)).toArray(NGram[]::new);
+        wordList = Files.createTempFile("matchle-bench", ".txt");
+        Files.writeString(wordList, Arrays.stream(words).map(NGram::toString).collect(Collectors.joining("\n")));
+        corpusFile = Files.createTempFile("matchle-bench", CorpusFile.EXTENSION);
+        CorpusFile.write(corpus, corpusFile, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(wordList);
+        Files.deleteIfExists(corpusFile);
+    }
+
+    @Benchmark
+    public Corpus build() {
+        return Corpus.Builder.empty(wordSize).addAll(Arrays.asList(words)).build();
+    }
+
+    @Benchmark
+    public Corpus loadWordList() throws IOException {
+        return CorpusLoader.load(wordList, wordSize);
+    }
+
+    @Benchmark
+    public Corpus loadCorpusFile() throws IOException {
+        return CorpusFile.read(corpusFile);
+    }
+
+    @Benchmark
+    public long[] feedbackColumnar(Cursor cursor) {
+        return corpus.columns().feedback(misses[cursor.next(misses.length)]);
+    }
+
+    @Benchmark
+    public long[] feedbackPerWord(Cursor cursor) {
+        NGram guess = misses[cursor.next(misses.length)];
+        long[] codes = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            codes[i] = NGramMatcher.feedback(words[i], guess);
+        }
+        return codes;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean containsHit(Cursor cursor) {
+        return corpus.contains(words[cursor.next(words.length)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean containsMiss(Cursor cursor) {
+        return corpus.contains(misses[cursor.next(misses.length)]);
+    }
+
+    /**
+     * Position of a thread in the words it queries.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next(int length) {
+            next = next + 1 < length ? next + 1 : 0;
+            return next;
+        }
+    }
+}
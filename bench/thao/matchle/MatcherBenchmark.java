@@ -0,0 +1,85 @@
+package thao.matchle;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks matching a guess against a key and comparing the results.
+ * Pairs are cycled through so that the JIT can not fold a single constant pair away.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatcherBenchmark {
+    private static final int PAIRS = 1024;
+
+    @Param({"5", "8", "12", "16"})
+    public int wordSize;
+
+    private NGram[] keys;
+    private NGram[] guesses;
+    private GuessResult[] results;
+    private GuessResult[] copies;
+    private final FeedbackCache cache = FeedbackCache.of(4 * PAIRS);
+    private int next;
+
+    @Setup
+    public void setUp() {
+        keys = Words.random(PAIRS, wordSize, 1);
+        guesses = Words.random(PAIRS, wordSize, 2);
+        results = new GuessResult[PAIRS];
+        copies = new GuessResult[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            results[i] = NGramMatcher.of(keys[i], guesses[i]).match();
+            copies[i] = NGramMatcher.of(keys[i], guesses[i]).match();
+        }
+    }
+
+    private int next() {
+        next = (next + 1) & (PAIRS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public GuessResult match() {
+        int i = next();
+        return NGramMatcher.of(keys[i], guesses[i]).match();
+    }
+
+    @Benchmark
+    public long feedback() {
+        int i = next();
+        return NGramMatcher.feedback(keys[i], guesses[i]);
+    }
+
+    @Benchmark
+    public long feedbackCached() {
+        int i = next();
+        return NGramMatcher.cached(cache, keys[i], guesses[i]);
+    }
+
+    @Benchmark
+    public boolean guessResultEquals() {
+        int i = next();
+        return results[i].equals(copies[i]);
+    }
+
+    @Benchmark
+    public long feedbackCodeOf() {
+        return FeedbackCode.of(results[next()]);
+    }
+}
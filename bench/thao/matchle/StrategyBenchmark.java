@@ -0,0 +1,85 @@
+package thao.matchle;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the scoring primitives of the strategies and their full guess search.
+ * The guesses are searched from scratch: no opening book is registered and the guess cache is off in the benchmark JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-D" + GuessCache.SIZE_PROPERTY + "=0")
+public class StrategyBenchmark {
+    @Param({"500", "2000"})
+    public int corpusSize;
+
+    @Param({"5", "7"})
+    public int wordSize;
+
+    private Corpus corpus;
+    private NGram key;
+    private NGram guess;
+    private GuessResult result;
+    private WorstCaseStrategy worstCase;
+    private AverageCaseStrategy averageCase;
+
+    @Setup
+    public void setUp() {
+        corpus = Words.corpus(corpusSize, wordSize);
+        key = corpus.get(0);
+        guess = corpus.get(corpus.size() / 2);
+        result = NGramMatcher.of(key, guess).match();
+        worstCase = WorstCaseStrategy.from(corpus);
+        averageCase = AverageCaseStrategy.from(corpus);
+        // Build the index outside of the measurements, as every later call reuses it
+        corpus.index();
+    }
+
+    @Benchmark
+    public long size() {
+        return worstCase.size(result, corpus);
+    }
+
+    @Benchmark
+    public long scoreKey() {
+        return worstCase.score(key, guess, corpus);
+    }
+
+    @Benchmark
+    public long scoreWorstCase() {
+        return worstCase.score(guess, scores -> scores.max().orElse(0), corpus);
+    }
+
+    @Benchmark
+    public long scoreAverageCase() {
+        return averageCase.score(guess, LongStream::sum, corpus);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public NGram worstCaseGuess() {
+        return worstCase.guess();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public NGram averageCaseGuess() {
+        return averageCase.guess();
+    }
+}
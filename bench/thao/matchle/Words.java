@@ -0,0 +1,47 @@
+package thao.matchle;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Words class generates reproducible random lowercase words for the benchmarks.
+ */
+final class Words {
+    private Words() {
+    }
+
+    /**
+     * Generates distinct random words.
+     * @param count the number of words, at most the number of distinct words of the size
+     * @param wordSize the size of the words
+     * @param seed the seed of the generator, so that every run benchmarks the same words
+     * @return the distinct words
+     */
+    static NGram[] random(int count, int wordSize, long seed) {
+        Random random = new Random(seed);
+        Set<NGram> words = new LinkedHashSet<>();
+        char[] letters = new char[wordSize];
+        while (words.size() < count) {
+            for (int i = 0; i < wordSize; i++) {
+                letters[i] = (char) ('a' + random.nextInt(26));
+            }
+            words.add(NGram.from(new String(letters)));
+        }
+        return words.toArray(NGram[]::new);
+    }
+
+    /**
+     * Generates a corpus of distinct random words.
+     * @param count the number of words
+     * @param wordSize the size of the words
+     * @return the corpus of the words
+     */
+    static Corpus corpus(int count, int wordSize) {
+        Corpus.Builder builder = Corpus.Builder.empty(wordSize);
+        for (NGram word : random(count, wordSize, 293)) {
+            builder.add(word);
+        }
+        return builder.build();
+    }
+}
@@ -9,14 +9,25 @@ import java.util.Objects;
  */
 public class AverageCaseStrategy implements MatchingStrategy {
     private final Corpus corpus;
+    /**
+     * Precomputed feedback of the corpus, or null if feedback is computed by matching.
+     */
+    private final FeedbackMatrix matrix;
+    /**
+     * Indices of the corpus words in the matrix, or null if there is no matrix.
+     */
+    private final int[] keys;
 
-    private AverageCaseStrategy(Corpus corpus) {
+    private AverageCaseStrategy(Corpus corpus, FeedbackMatrix matrix) {
         assert corpus != null;
         this.corpus = corpus;
+        this.matrix = matrix;
+        this.keys = matrix == null ? null : matrix.indicesOf(corpus);
     }
 
     /**
      * Creates a new AverageCaseStrategy instance with the given corpus.
+     * Feedback is looked up in a registered FeedbackMatrix covering the corpus, if there is one.
      *
      * @param corpus The corpus to be used for the strategy.
      * @return A new AverageCaseStrategy instance.
@@ -24,11 +35,28 @@ public class AverageCaseStrategy implements MatchingStrategy {
     public static AverageCaseStrategy from(Corpus corpus) {
         Objects.requireNonNull(corpus);
         
-        return new AverageCaseStrategy(corpus);
+        return new AverageCaseStrategy(corpus, FeedbackMatrix.lookup(corpus));
+    }
+
+    /**
+     * Creates a new AverageCaseStrategy instance that looks feedback up in a precomputed matrix
+     * instead of matching the guesses against the corpus.
+     *
+     * @param corpus The corpus to be used for the strategy.
+     * @param matrix The feedback matrix covering every word of the corpus.
+     * @return A new AverageCaseStrategy instance.
+     * @throws NullPointerException if corpus or matrix is null.
+     * @throws IllegalArgumentException if the matrix does not cover the corpus.
+     */
+    static AverageCaseStrategy from(Corpus corpus, FeedbackMatrix matrix) {
+        Objects.requireNonNull(corpus);
+        Objects.requireNonNull(matrix);
+        return new AverageCaseStrategy(corpus, matrix);
     }
 
     /**
      * Calculates the score of a guess in the average case, which is the sum of the scores
+     * of every key, that is the sum of the squared feedback bucket sizes.
      * @param guess The NGram representing the guess.
      * @throws NullPointerException if guess is null.
      * @throws IllegalStateException if the corpus is empty.
@@ -39,15 +67,18 @@ public class AverageCaseStrategy implements MatchingStrategy {
         if (corpus.isEmpty()) {
             throw new IllegalStateException("Can not calculate the score of an empty corpus.");
         }
-        return score(guess, stream -> stream.sum(), corpus);
+        return FeedbackMatrix.partition(guess, corpus, matrix, keys).sumOfSquares();
     }
 
     /**
      * Returns the best guess based on the average case strategy.
+     * The search is skipped if a registered OpeningBook or the shared GuessCache has the guess for this corpus.
      *
      * @return The best guess as an NGram.
      */
     public NGram guess() {
-        return bestGuess(ngram -> scoreAverageCase(ngram), corpus);
+        return OpeningBook.lookup(AverageCaseStrategy.class, corpus)
+                          .orElseGet(() -> GuessCache.shared().get(AverageCaseStrategy.class, corpus,
+                                                                   () -> bestGuess(ngram -> scoreAverageCase(ngram), corpus)));
     }
 }
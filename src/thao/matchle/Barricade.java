@@ -28,12 +28,12 @@ final class Barricade  {
             System.out.println("Guess must have " + expectedLength + " letters");
             return Optional.empty();
         }
-        if (!corpus.contains(NGram.from(guess))) {
+        // The corpus hands out its own NGram, so none is created for the guess
+        Optional<NGram> interned = corpus.intern(guess);
+        if (interned.isEmpty()) {
             System.out.println("Guess not in corpus");
-            return Optional.empty();
         }
-
-        return Optional.of(NGram.from(guess));
+        return interned;
     }
 
     /**
@@ -4,6 +4,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -108,4 +109,11 @@ public class BarricadeTest {
     public void testValidatedGuessWithNullCorpus() {
         Barricade.validatedGuess("apple", null, 5);
     }
+
+    @Test
+    public void testValidatedGuessIsInterned() {
+        NGram guess = Barricade.validatedGuess("mango", testCorpus, 5).orElseThrow();
+        assertSame(testCorpus.get(testCorpus.idOf(guess)), guess);
+        assertSame(guess, Barricade.validatedGuess("mango", testCorpus, 5).orElseThrow());
+    }
 }
@@ -0,0 +1,95 @@
+package thao.matchle;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * BestGuessSearch class finds the candidate guess with the lowest score using fork-join parallelism.
+ * Every candidate is scored exactly once. Ties go to the alphabetically smallest candidate,
+ * so the result does not depend on the order of the candidates or on how the work is split between threads.
+ */
+final class BestGuessSearch extends RecursiveTask<BestGuessSearch.Scored> {
+    /**
+     * Serial version UID for serialization.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * Number of candidates below which a task scores its candidates itself instead of forking.
+     * Scoring a single candidate already walks the whole corpus, so tasks are kept small.
+     */
+    private static final int THRESHOLD = 4;
+
+    // Transient since tasks are never serialized
+    private final transient NGram[] candidates;
+    private final int from;
+    private final int to;
+    private final transient ToDoubleFunction<NGram> criterion;
+
+    /**
+     * A candidate guess together with its score.
+     * @param guess the candidate guess
+     * @param score the score of the guess, lower is better
+     */
+    record Scored(NGram guess, double score) {
+        /**
+         * Picks the better of two scored guesses.
+         * @param other the other scored guess
+         * @return the guess with the lower score, or the alphabetically smaller guess if the scores are equal
+         */
+        Scored min(Scored other) {
+            int comparison = Double.compare(this.score, other.score);
+            if (comparison == 0) {
+                comparison = this.guess.compareTo(other.guess);
+            }
+            return comparison <= 0 ? this : other;
+        }
+    }
+
+    private BestGuessSearch(NGram[] candidates, int from, int to, ToDoubleFunction<NGram> criterion) {
+        assert candidates != null;
+        assert from < to;
+        assert criterion != null;
+        this.candidates = candidates;
+        this.from = from;
+        this.to = to;
+        this.criterion = criterion;
+    }
+
+    /**
+     * Finds the candidate with the lowest score in the common fork-join pool.
+     * Long scores are compared exactly as long as they stay below 2^53.
+     * @param candidates the candidate guesses
+     * @param criterion the function to evaluate the score of each candidate, lower is better
+     * @return the candidate with the lowest score, ties going to the alphabetically smallest candidate
+     * @throws NullPointerException if candidates or criterion is null
+     * @throws NoSuchElementException if there are no candidates
+     */
+    static NGram minimize(NGram[] candidates, ToDoubleFunction<NGram> criterion) {
+        Objects.requireNonNull(candidates);
+        Objects.requireNonNull(criterion);
+        if (candidates.length == 0) {
+            throw new NoSuchElementException("No candidate guess to choose from");
+        }
+        return ForkJoinPool.commonPool().invoke(new BestGuessSearch(candidates, 0, candidates.length, criterion)).guess();
+    }
+
+    @Override
+    protected Scored compute() {
+        if (to - from <= THRESHOLD) {
+            Scored best = null;
+            for (int i = from; i < to; i++) {
+                Scored scored = new Scored(candidates[i], criterion.applyAsDouble(candidates[i]));
+                best = best == null ? scored : best.min(scored);
+            }
+            return best;
+        }
+        int middle = (from + to) >>> 1;
+        BestGuessSearch left = new BestGuessSearch(candidates, from, middle, criterion);
+        left.fork();
+        Scored right = new BestGuessSearch(candidates, middle, to, criterion).compute();
+        return left.join().min(right);
+    }
+}
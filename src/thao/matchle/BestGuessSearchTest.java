@@ -0,0 +1,64 @@
+package thao.matchle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class BestGuessSearchTest {
+    private static NGram[] words(int count) {
+        return IntStream.range(0, count)
+                        .mapToObj(i -> NGram.from(String.format("w%04d", i)))
+                        .toArray(NGram[]::new);
+    }
+
+    @Test
+    public void testMinimize() {
+        NGram[] candidates = words(100);
+        NGram best = BestGuessSearch.minimize(candidates, ngram -> Math.abs(Integer.parseInt(ngram.toString().substring(1)) - 42));
+        assertEquals(NGram.from("w0042"), best);
+    }
+
+    @Test
+    public void testTiesGoToSmallestGuess() {
+        List<NGram> candidates = Arrays.asList(words(100));
+        Collections.shuffle(candidates);
+        NGram best = BestGuessSearch.minimize(candidates.toArray(NGram[]::new), ngram -> 0);
+        assertEquals(NGram.from("w0000"), best);
+    }
+
+    @Test
+    public void testScoresEveryCandidateOnce() {
+        NGram[] candidates = words(100);
+        AtomicInteger calls = new AtomicInteger();
+        BestGuessSearch.minimize(candidates, ngram -> calls.incrementAndGet());
+        assertEquals(candidates.length, calls.get());
+    }
+
+    @Test
+    public void testStrategyGuessIsReproducible() {
+        List<NGram> words = Arrays.stream(words(30)).collect(Collectors.toList());
+        Corpus corpus = Corpus.Builder.empty(5).addAll(words).build();
+        NGram first = WorstCaseStrategy.from(corpus).guess();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(first, WorstCaseStrategy.from(corpus).guess());
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testMinimizeWithoutCandidates() {
+        BestGuessSearch.minimize(new NGram[0], ngram -> 0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testMinimizeWithNullCriterion() {
+        BestGuessSearch.minimize(words(1), null);
+    }
+}
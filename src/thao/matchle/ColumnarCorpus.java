@@ -0,0 +1,185 @@
+package thao.matchle;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * ColumnarCorpus class matches one guess against every word of a corpus at once.
+ * The words are stored column-wise: for every position, the letters of eight consecutive words are packed
+ * into the eight byte lanes of a long, each letter replaced by its slot in the sorted alphabet of the words.
+ * A position of eight words is then compared to a letter of the guess with a handful of long operations
+ * (SIMD within a register), and the match types of up to five positions are summed into the feedback codes
+ * of the eight words in their byte lanes, since 3^5 - 1 fits in a byte.
+ * <p>
+ * Words with more than 256 distinct letters, empty words and guesses of another size than the words
+ * are matched one word at a time with NGramMatcher instead.
+ */
+final class ColumnarCorpus {
+    private static final int LANES = Long.BYTES;
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOWS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGHS = 0x8080808080808080L;
+    /**
+     * Largest number of positions whose codes sum in a byte lane without overflowing it.
+     */
+    private static final int POSITIONS_PER_LANE = 5;
+    /**
+     * Largest number of distinct letters that fit in a byte lane.
+     */
+    private static final int MAX_ALPHABET = 1 << Byte.SIZE;
+
+    private final NGram[] words;
+    private final int wordSize;
+    /**
+     * Sorted distinct letters of the words, or null if there are too many for a byte lane.
+     */
+    private final char[] alphabet;
+    /**
+     * Alphabet slots of the letters at each position, indexed by position then block of eight words.
+     */
+    private final long[][] columns;
+
+    private ColumnarCorpus(NGram[] words, int wordSize) {
+        assert words != null;
+        this.words = words;
+        this.wordSize = wordSize;
+
+        BitSet letters = new BitSet();
+        for (NGram word : words) {
+            for (int j = 0; j < wordSize; j++) {
+                letters.set(word.charAt(j));
+            }
+        }
+        if (letters.cardinality() > MAX_ALPHABET) {
+            this.alphabet = null;
+            this.columns = null;
+            return;
+        }
+        this.alphabet = new char[letters.cardinality()];
+        int slot = 0;
+        for (int c = letters.nextSetBit(0); c >= 0; c = letters.nextSetBit(c + 1)) {
+            alphabet[slot++] = (char) c;
+        }
+        this.columns = new long[wordSize][(words.length + LANES - 1) / LANES];
+        for (int id = 0; id < words.length; id++) {
+            for (int j = 0; j < wordSize; j++) {
+                long letter = Arrays.binarySearch(alphabet, words[id].charAt(j));
+                columns[j][id / LANES] |= letter << (id % LANES * Byte.SIZE);
+            }
+        }
+    }
+
+    /**
+     * Stores words column-wise.
+     * @param words the words, all of the same size, in the order their codes are reported
+     * @return a new ColumnarCorpus of the words
+     * @throws NullPointerException if words or any of its elements is null
+     * @throws IllegalArgumentException if the words are not all of the same size
+     */
+    static ColumnarCorpus of(NGram[] words) {
+        Objects.requireNonNull(words);
+        int wordSize = words.length == 0 ? 0 : words[0].size();
+        for (NGram word : words) {
+            if (word.size() != wordSize) {
+                throw new IllegalArgumentException("Words must all have the same size");
+            }
+        }
+        return new ColumnarCorpus(words.clone(), wordSize);
+    }
+
+    /**
+     * Getter for the number of words.
+     * @return the number of words
+     */
+    int size() {
+        return words.length;
+    }
+
+    /**
+     * Matches a guess against every word.
+     * @param guess the guessed n-gram
+     * @return the FeedbackCode of the guess against each word, in the order of the words
+     * @throws NullPointerException if guess is null
+     * @throws IllegalArgumentException if the guess is longer than FeedbackCode.MAX_LENGTH
+     */
+    long[] feedback(NGram guess) {
+        long[] codes = new long[words.length];
+        feedback(guess, codes);
+        return codes;
+    }
+
+    /**
+     * Matches a guess against every word into an array.
+     * @param guess the guessed n-gram
+     * @param codes the array receiving the FeedbackCode of the guess against each word, in the order of the words
+     * @throws NullPointerException if guess or codes is null
+     * @throws IllegalArgumentException if the guess is longer than FeedbackCode.MAX_LENGTH or codes is too short
+     */
+    void feedback(NGram guess, long[] codes) {
+        Objects.requireNonNull(guess);
+        Objects.requireNonNull(codes);
+        if (guess.size() > FeedbackCode.MAX_LENGTH) {
+            throw new IllegalArgumentException("Guess can not be longer than " + FeedbackCode.MAX_LENGTH);
+        }
+        if (codes.length < words.length) {
+            throw new IllegalArgumentException("Codes must hold one code per word");
+        }
+        if (columns == null || wordSize == 0 || guess.size() != wordSize) {
+            for (int id = 0; id < words.length; id++) {
+                codes[id] = NGramMatcher.feedback(words[id], guess);
+            }
+            return;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.FEEDBACKS.add(words.length);
+        }
+
+        // Slot of each guess letter repeated in every lane, letters no word has matching no lane at all
+        long[] broadcast = new long[wordSize];
+        boolean[] present = new boolean[wordSize];
+        for (int j = 0; j < wordSize; j++) {
+            int slot = Arrays.binarySearch(alphabet, guess.charAt(j));
+            present[j] = slot >= 0;
+            broadcast[j] = present[j] ? slot * ONES : 0;
+        }
+
+        Arrays.fill(codes, 0, words.length, FeedbackCode.EXACT_MATCH);
+        for (int block = 0; block < columns[0].length; block++) {
+            int base = block * LANES;
+            int lanes = Math.min(LANES, words.length - base);
+            for (int start = 0; start < wordSize; start += POSITIONS_PER_LANE) {
+                long sums = 0;
+                long weight = 1;
+                for (int j = start; j < Math.min(start + POSITIONS_PER_LANE, wordSize); j++) {
+                    long exact = 0;
+                    long contains = 0;
+                    if (present[j]) {
+                        exact = equal(columns[j][block], broadcast[j]);
+                        for (int k = 0; k < wordSize; k++) {
+                            contains |= equal(columns[k][block], broadcast[j]);
+                        }
+                    }
+                    // Match type ordinals in every lane: 0 for EXACT, 1 for PARTIAL, 2 for NONE
+                    long types = ((~contains & HIGHS) >>> 6) + ((contains & ~exact) >>> 7);
+                    sums += types * weight;
+                    weight *= 3;
+                }
+                long scale = FeedbackCode.count(start);
+                for (int lane = 0; lane < lanes; lane++) {
+                    codes[base + lane] += (sums >>> (lane * Byte.SIZE) & 0xFF) * scale;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares every byte lane of a long to the same lane of another.
+     * @return the high bit of every equal lane
+     */
+    private static long equal(long lanes, long broadcast) {
+        long x = lanes ^ broadcast;
+        // The high bit of a lane is set iff any of its low seven bits is, or its own high bit is
+        return ~(((x & LOWS) + LOWS) | x) & HIGHS;
+    }
+}
@@ -0,0 +1,130 @@
+package thao.matchle;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class ColumnarCorpusTest {
+    private static NGram[] words(String... words) {
+        NGram[] ngrams = new NGram[words.length];
+        for (int i = 0; i < words.length; i++) {
+            ngrams[i] = NGram.from(words[i]);
+        }
+        return ngrams;
+    }
+
+    private static NGram[] random(Random random, int count, int wordSize, int letters, char first) {
+        NGram[] words = new NGram[count];
+        char[] word = new char[wordSize];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < wordSize; j++) {
+                word[j] = (char) (first + random.nextInt(letters));
+            }
+            words[i] = NGram.from(new String(word));
+        }
+        return words;
+    }
+
+    private static void assertMatches(NGram[] keys, NGram guess) {
+        long[] codes = ColumnarCorpus.of(keys).feedback(guess);
+        assertEquals(keys.length, codes.length);
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(keys[i] + " against " + guess, NGramMatcher.feedback(keys[i], guess), codes[i]);
+        }
+    }
+
+    @Test
+    public void testFeedback() {
+        NGram[] keys = words("crane", "slate", "trace", "plant", "brick", "stare", "eerie", "crate", "grape");
+        for (String guess : new String[] {"crane", "eerie", "zzzzz", "tacos", "ababa"}) {
+            assertMatches(keys, NGram.from(guess));
+        }
+        assertEquals(FeedbackCode.EXACT_MATCH, ColumnarCorpus.of(keys).feedback(NGram.from("brick"))[4]);
+    }
+
+    @Test
+    public void testRandomWords() {
+        Random random = new Random(293);
+        for (int wordSize = 1; wordSize <= 14; wordSize++) {
+            for (int count : new int[] {1, 7, 8, 9, 100}) {
+                NGram[] keys = random(random, count, wordSize, 6, 'a');
+                for (int g = 0; g < 5; g++) {
+                    assertMatches(keys, random(random, 1, wordSize, 8, 'a')[0]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLongestGuess() {
+        Random random = new Random(7);
+        NGram[] keys = random(random, 20, FeedbackCode.MAX_LENGTH, 26, 'a');
+        assertMatches(keys, random(random, 1, FeedbackCode.MAX_LENGTH, 26, 'a')[0]);
+    }
+
+    @Test
+    public void testNonAsciiLetters() {
+        Random random = new Random(11);
+        NGram[] keys = random(random, 50, 5, 30, 'à');
+        assertMatches(keys, random(random, 1, 5, 30, 'à')[0]);
+    }
+
+    @Test
+    public void testLargeAlphabet() {
+        // More letters than byte lanes can number fall back to matching one word at a time
+        Random random = new Random(13);
+        NGram[] keys = random(random, 200, 4, 1000, '一');
+        assertMatches(keys, keys[17]);
+        assertMatches(keys, random(random, 1, 4, 1000, '一')[0]);
+    }
+
+    @Test
+    public void testGuessOfAnotherSize() {
+        NGram[] keys = words("crane", "slate", "trace");
+        assertMatches(keys, NGram.from("cra"));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, ColumnarCorpus.of(new NGram[0]).feedback(NGram.from("crane")).length);
+        assertEquals(0, ColumnarCorpus.of(new NGram[0]).size());
+    }
+
+    @Test
+    public void testFeedbackIntoArray() {
+        NGram[] keys = words("crane", "slate", "trace");
+        long[] codes = new long[5];
+        codes[3] = 42;
+        ColumnarCorpus.of(keys).feedback(NGram.from("slate"), codes);
+        assertEquals(NGramMatcher.feedback(keys[2], NGram.from("slate")), codes[2]);
+        assertEquals(42, codes[3]);
+    }
+
+    @Test
+    public void testCorpusColumns() {
+        Corpus corpus = Corpus.Builder.empty(5).add(NGram.from("crane")).add(NGram.from("slate")).build();
+        assertSame(corpus.columns(), corpus.columns());
+        assertEquals(corpus.size(), corpus.columns().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMixedSizes() {
+        ColumnarCorpus.of(words("crane", "cat"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortArray() {
+        ColumnarCorpus.of(words("crane", "slate")).feedback(NGram.from("crane"), new long[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGuessTooLong() {
+        ColumnarCorpus.of(words("crane")).feedback(NGram.from("a".repeat(FeedbackCode.MAX_LENGTH + 1)));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullGuess() {
+        ColumnarCorpus.of(words("crane")).feedback(null);
+    }
+}
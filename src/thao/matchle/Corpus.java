@@ -8,6 +8,7 @@ import java.util.stream.*;
 /**
  * Corpus class represents a collection of NGrams and provides methods to manipulate and query the corpus.
  * It implements Iterable interface on type NGram to allow iteration over the NGrams in the corpus.
+ * The NGrams are kept in the order they were added, in a WordStore that corpora of other word sizes may share.
  */
 public final class Corpus implements Iterable<NGram> {
     /**
@@ -15,21 +16,100 @@ public final class Corpus implements Iterable<NGram> {
      */
     private static final Logger logger = Logger.getLogger(Corpus.class.getName());
     /**
-     * Set of NGrams in the corpus.
+     * Store holding the NGrams of the corpus, possibly shared with other corpora.
      */
-    private final Set<NGram> corpus;
+    private final WordStore store;
+    /**
+     * Number in the store of the first NGram of the corpus.
+     */
+    private final int from;
+    /**
+     * Number in the store past the last NGram of the corpus.
+     */
+    private final int to;
     /**
      * The size of the words in the corpus.
      */
     private int wordSize;
+    /**
+     * Hash of the words in the corpus, independent of their order.
+     */
+    private final long fingerprint;
+    /**
+     * Positional letter index of the corpus, built on first use.
+     */
+    private volatile CorpusIndex index;
+    /**
+     * Column-wise copy of the words, for matching a guess against all of them at once, built on first use.
+     */
+    private volatile ColumnarCorpus columns;
 
     // Constructor
-    private Corpus(Set<NGram> corpus) {
-        assert corpus != null;
-        this.corpus = Set.copyOf(corpus);
-        Iterator<NGram> it = corpus.iterator();
-        assert it.hasNext(); 
-        this.wordSize = it.next().size();; 
+    private Corpus(WordStore store, int from, int to) {
+        assert store != null;
+        assert from < to;
+        this.store = store;
+        this.from = from;
+        this.to = to;
+        this.wordSize = store.get(from).size();
+        this.fingerprint = fingerprint(store.list(from, to));
+    }
+
+    /**
+     * Creates a corpus straight from distinct words, skipping the copy made by the Builder.
+     * Used by loaders that already validated and deduplicated the words.
+     * @param words the distinct words of the corpus, all of the same size, owned by the new corpus
+     * @return a new Corpus holding the words in their order
+     * @throws NullPointerException if words or any of its elements is null
+     * @throws IllegalArgumentException if words holds duplicates
+     * @throws IllegalStateException if words is empty
+     */
+    static Corpus ofDistinct(NGram[] words) {
+        Objects.requireNonNull(words);
+        if (words.length == 0) {
+            throw new IllegalStateException("Cannot build an empty corpus");
+        }
+        return new Corpus(WordStore.of(words), 0, words.length);
+    }
+
+    /**
+     * Creates a corpus viewing a range of a store, sharing the store instead of copying the words.
+     * @param store the store holding the words
+     * @param from the number of the first word of the corpus, inclusive
+     * @param to the number of the last word of the corpus, exclusive
+     * @return a new Corpus of the words in the range, which must all have the same size
+     * @throws NullPointerException if store is null
+     * @throws IndexOutOfBoundsException if the range is out of the bounds of the store
+     * @throws IllegalStateException if the range is empty
+     */
+    static Corpus view(WordStore store, int from, int to) {
+        Objects.requireNonNull(store);
+        Objects.checkFromToIndex(from, to, store.size());
+        if (from == to) {
+            throw new IllegalStateException("Cannot build an empty corpus");
+        }
+        return new Corpus(store, from, to);
+    }
+
+    /**
+     * Computes an order independent 64-bit hash of a collection of distinct NGrams.
+     * Each word is hashed on its own with FNV-1a and mixed, then the word hashes are summed.
+     * @param ngrams the NGrams to hash
+     * @return the hash of the NGrams
+     */
+    static long fingerprint(Collection<NGram> ngrams) {
+        long sum = ngrams.size();
+        for (NGram n : ngrams) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < n.size(); i++) {
+                hash = (hash ^ n.charAt(i)) * 0x100000001b3L;
+            }
+            // Finalizer of SplitMix64 to spread the bits before summing
+            hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+            hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+            sum += hash ^ (hash >>> 31);
+        }
+        return sum;
     }
     
     /**
@@ -37,7 +117,7 @@ public final class Corpus implements Iterable<NGram> {
      * @return the size of the words in the corpus
      */
     public int size() {
-        return corpus.size();
+        return to - from;
     }
 
     /**
@@ -46,8 +126,7 @@ public final class Corpus implements Iterable<NGram> {
      * @return true if the corpus contains the NGram, false otherwise
      */
     public boolean contains(NGram n) {
-        Objects.requireNonNull(n);
-        return corpus.contains(n);
+        return idOf(n) >= 0;
     }
 
     /**
@@ -57,7 +136,7 @@ public final class Corpus implements Iterable<NGram> {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (NGram n : corpus) {
+        for (NGram n : this) {
             sb.append(n.toString()).append(", ");
         }
         return sb.toString();
@@ -68,7 +147,7 @@ public final class Corpus implements Iterable<NGram> {
      * @return an iterator over the NGrams in the corpus
      */
     public java.util.Iterator<NGram> iterator() {
-        return corpus.iterator();
+        return view().iterator();
     }
     
     /**
@@ -76,15 +155,72 @@ public final class Corpus implements Iterable<NGram> {
      * @return a stream of NGrams in the corpus
      */
     public Stream<NGram> stream() {
-        return corpus.stream();
+        return store.stream(from, to);
     }
 
     /**
      * Getter for the corpus.
+     * Prefer view, get or idOf, which do not copy the NGrams.
      * @return a copy of the private variable corpus.
      */
     public Set<NGram> corpus() {
-        return new HashSet<>(corpus);
+        return new HashSet<>(view());
+    }
+
+    /**
+     * Gets the NGram with an id, in constant time.
+     * Ids number the NGrams of the corpus from 0 to size - 1 in iteration order.
+     * @param id the id of the NGram
+     * @return the NGram with the id
+     * @throws IndexOutOfBoundsException if id is negative or not less than size
+     */
+    public NGram get(int id) {
+        Objects.checkIndex(id, size());
+        return store.get(from + id);
+    }
+
+    /**
+     * Looks up the id of an NGram.
+     * @param n the NGram to look up
+     * @return the id of the NGram, or -1 if the NGram is not in the corpus
+     * @throws NullPointerException if n is null
+     */
+    public int idOf(NGram n) {
+        Objects.requireNonNull(n);
+        int id = store.indexOf(n);
+        return id >= from && id < to ? id - from : -1;
+    }
+
+    /**
+     * Looks up the id of a word given by its letters, without creating an NGram.
+     * @param word the letters of the word to look up
+     * @return the id of the word, or -1 if the word is not in the corpus
+     * @throws NullPointerException if word is null
+     */
+    public int idOf(CharSequence word) {
+        Objects.requireNonNull(word);
+        int id = store.indexOf(word);
+        return id >= from && id < to ? id - from : -1;
+    }
+
+    /**
+     * Gets the canonical NGram of the corpus for a word given by its letters, without creating an NGram.
+     * Every lookup of the same letters returns the same instance, so interned words can be compared with ==.
+     * @param word the letters of the word to look up
+     * @return the NGram held by the corpus, or empty if the word is not in the corpus
+     * @throws NullPointerException if word is null
+     */
+    public Optional<NGram> intern(CharSequence word) {
+        int id = idOf(word);
+        return id < 0 ? Optional.empty() : Optional.of(get(id));
+    }
+
+    /**
+     * Gets the NGrams of the corpus as a list, without copying them.
+     * @return an unmodifiable list view of the NGrams, indexed by id
+     */
+    public List<NGram> view() {
+        return store.list(from, to);
     }
 
     /**
@@ -95,12 +231,49 @@ public final class Corpus implements Iterable<NGram> {
         return wordSize;
     }
 
+    /**
+     * Getter for the fingerprint of the corpus.
+     * Corpora with the same words have the same fingerprint, so it can be used to key data derived from the corpus.
+     * @return a 64-bit hash of the words in the corpus
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Getter for the positional letter index of the corpus, which is built on first use and then kept.
+     * @return the CorpusIndex of the words in the corpus
+     */
+    CorpusIndex index() {
+        CorpusIndex built = index;
+        if (built == null) {
+            // Racing threads build equal indices, any of which can be kept
+            built = CorpusIndex.of(this);
+            index = built;
+        }
+        return built;
+    }
+
+    /**
+     * Getter for the column-wise copy of the words, which is built on first use and then kept.
+     * @return the ColumnarCorpus of the words, numbered by their id in the corpus
+     */
+    ColumnarCorpus columns() {
+        ColumnarCorpus built = columns;
+        if (built == null) {
+            // Racing threads build equal copies, any of which can be kept
+            built = ColumnarCorpus.of(store.list(from, to).toArray(NGram[]::new));
+            columns = built;
+        }
+        return built;
+    }
+
     /**
      * Check if the corpus is empty.
      * @return true if the corpus is empty, false otherwise.
      */
     public boolean isEmpty() {
-        return corpus.isEmpty();
+        return from == to;
     }
 
     /**
@@ -109,7 +282,7 @@ public final class Corpus implements Iterable<NGram> {
      */
     public static final class Builder {
         /**
-         * Set of NGrams in the builder.
+         * Set of NGrams in the builder, in insertion order.
          */
         private Set<NGram> ngrams;
         /**
@@ -127,7 +300,7 @@ public final class Corpus implements Iterable<NGram> {
             if (wordSize < 0) {
                 throw new IllegalArgumentException("Word size must be non-negative");
             }
-            return new Builder(new HashSet<NGram>(), wordSize);
+            return new Builder(new LinkedHashSet<NGram>(), wordSize);
         }
 
         // Constructor
@@ -144,7 +317,7 @@ public final class Corpus implements Iterable<NGram> {
          */
         public static final Builder of(Corpus corpus) {
             Objects.requireNonNull(corpus);
-            return new Builder(corpus.corpus(), corpus.wordSize());
+            return new Builder(new LinkedHashSet<>(corpus.view()), corpus.wordSize());
         }
 
         /**
@@ -219,7 +392,7 @@ public final class Corpus implements Iterable<NGram> {
             if (ngrams.isEmpty()) {
                 throw new IllegalStateException("Cannot build an empty corpus");
             }
-            return new Corpus(ngrams);
+            return ofDistinct(ngrams.toArray(NGram[]::new));
         } 
     }
 }
@@ -0,0 +1,247 @@
+package thao.matchle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * CorpusFile class reads and writes corpora in a compact binary format, so that large word lists
+ * are loaded with a single memory mapping instead of being parsed from text on every start.
+ * The file starts with a header holding the word size, the number of words, a checksum of the words
+ * and the alphabet of the corpus, followed by the words as fixed-width records in which every letter
+ * takes just enough bits to index the alphabet: four bytes per word for five lowercase letters.
+ */
+public final class CorpusFile {
+    /**
+     * Marks the start of a corpus file, "MCRP" in ASCII.
+     */
+    private static final int MAGIC = 0x4D435250;
+    private static final int VERSION = 1;
+    /**
+     * Flag set if the words are stored in alphabetical order.
+     */
+    private static final int SORTED = 1;
+    /**
+     * Size of the fixed part of the header: magic, version, flags, word size, word count, checksum and alphabet size.
+     */
+    private static final int HEADER_BYTES = 6 * Integer.BYTES + Long.BYTES;
+    /**
+     * Conventional extension of corpus files.
+     */
+    static final String EXTENSION = ".corpus";
+
+    private CorpusFile() {
+    }
+
+    /**
+     * Writes a corpus to a file, replacing its content.
+     * @param corpus the corpus to write
+     * @param file the corpus file
+     * @param sorted whether to store the words in alphabetical order
+     * @throws NullPointerException if corpus or file is null
+     * @throws IllegalArgumentException if the corpus is too large for a single file
+     * @throws IOException if the file can not be written
+     */
+    public static void write(Corpus corpus, Path file, boolean sorted) throws IOException {
+        Objects.requireNonNull(corpus);
+        Objects.requireNonNull(file);
+        NGram[] words = corpus.stream().toArray(NGram[]::new);
+        if (sorted) {
+            Arrays.sort(words);
+        }
+        int wordSize = corpus.wordSize();
+        char[] alphabet = alphabet(words);
+        int recordBytes = recordBytes(wordSize, bitsPerLetter(alphabet.length));
+        long fileBytes = HEADER_BYTES + (long) alphabet.length * Character.BYTES + (long) words.length * recordBytes;
+        if (fileBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Corpus of " + words.length + " words is too large for a single file");
+        }
+
+        ByteBuffer records = ByteBuffer.allocate(words.length * recordBytes);
+        for (int i = 0; i < words.length; i++) {
+            encode(words[i], alphabet, records, i * recordBytes);
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(records.duplicate());
+
+        // Fill a temporary file and move it in place so that readers never see a partial corpus
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(sorted ? SORTED : 0).putInt(wordSize).putInt(words.length)
+                  .putLong(checksum.getValue()).putInt(alphabet.length);
+            for (char c : alphabet) {
+                buffer.putChar(c);
+            }
+            buffer.put(records);
+            buffer.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a corpus from a file written by write, memory-mapping it and checking its checksum.
+     * @param file the corpus file
+     * @return the corpus read from the file
+     * @throws NullPointerException if file is null
+     * @throws IOException if the file can not be read, is not a corpus file, or is truncated or corrupt
+     */
+    public static Corpus read(Path file) throws IOException {
+        Objects.requireNonNull(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Corpus file is too large: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a corpus file: " + file);
+            }
+            buffer.getInt(); // flags, only informative when reading
+            int wordSize = buffer.getInt();
+            int count = buffer.getInt();
+            long expected = buffer.getLong();
+            int alphabetSize = buffer.getInt();
+            if (wordSize <= 0 || count <= 0 || alphabetSize <= 0 || alphabetSize > Character.MAX_VALUE + 1) {
+                throw new IOException("Corrupt corpus file header: " + file);
+            }
+            int recordBytes = recordBytes(wordSize, bitsPerLetter(alphabetSize));
+            long fileBytes = HEADER_BYTES + (long) alphabetSize * Character.BYTES + (long) count * recordBytes;
+            if (buffer.limit() != fileBytes) {
+                throw new IOException("Truncated corpus file: " + file);
+            }
+            char[] alphabet = new char[alphabetSize];
+            for (int i = 0; i < alphabetSize; i++) {
+                alphabet[i] = buffer.getChar();
+            }
+            ByteBuffer records = buffer.slice();
+            CRC32 checksum = new CRC32();
+            checksum.update(records.duplicate());
+            if (checksum.getValue() != expected) {
+                throw new IOException("Corrupt corpus file, checksum mismatch: " + file);
+            }
+
+            NGram[] words = new NGram[count];
+            char[] letters = new char[wordSize];
+            for (int i = 0; i < count; i++) {
+                words[i] = decode(records, i * recordBytes, alphabet, letters);
+            }
+            try {
+                return Corpus.ofDistinct(words);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt corpus file, duplicate words: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Checks if a file starts like a corpus file, so that it can be told apart from a text word list.
+     * @param file the file to check
+     * @return true if the file starts with the magic number of corpus files, false otherwise
+     * @throws NullPointerException if file is null
+     * @throws IOException if the file can not be read
+     */
+    public static boolean isCorpusFile(Path file) throws IOException {
+        Objects.requireNonNull(file);
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] magic = in.readNBytes(Integer.BYTES);
+            return magic.length == Integer.BYTES && ByteBuffer.wrap(magic).getInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Sorted distinct letters of a set of words.
+     */
+    private static char[] alphabet(NGram[] words) {
+        BitSet letters = new BitSet();
+        for (NGram word : words) {
+            for (int j = 0; j < word.size(); j++) {
+                letters.set(word.charAt(j));
+            }
+        }
+        char[] alphabet = new char[letters.cardinality()];
+        int i = 0;
+        for (int c = letters.nextSetBit(0); c >= 0; c = letters.nextSetBit(c + 1)) {
+            alphabet[i++] = (char) c;
+        }
+        return alphabet;
+    }
+
+    /**
+     * Number of bits needed to index an alphabet, at least one.
+     */
+    private static int bitsPerLetter(int alphabetSize) {
+        return Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(alphabetSize - 1));
+    }
+
+    private static int recordBytes(int wordSize, int bitsPerLetter) {
+        return Math.toIntExact(((long) wordSize * bitsPerLetter + Byte.SIZE - 1) / Byte.SIZE);
+    }
+
+    /**
+     * Writes the alphabet indices of the letters of a word into a record, the first letter in the lowest bits.
+     */
+    private static void encode(NGram word, char[] alphabet, ByteBuffer records, int offset) {
+        int bits = bitsPerLetter(alphabet.length);
+        for (int j = 0; j < word.size(); j++) {
+            int index = Arrays.binarySearch(alphabet, word.charAt(j));
+            int position = j * bits;
+            // An index spans at most three bytes, as it has at most 16 bits and starts within a byte
+            for (int shift = -(position % Byte.SIZE); shift < bits; shift += Byte.SIZE) {
+                int at = offset + (position + Math.max(shift, 0)) / Byte.SIZE;
+                int value = shift < 0 ? index << -shift : index >>> shift;
+                records.put(at, (byte) (records.get(at) | value));
+            }
+        }
+    }
+
+    /**
+     * Reads the letters of a record back into a word.
+     */
+    private static NGram decode(ByteBuffer records, int offset, char[] alphabet, char[] letters) throws IOException {
+        int bits = bitsPerLetter(alphabet.length);
+        int mask = (1 << bits) - 1;
+        for (int j = 0; j < letters.length; j++) {
+            int position = j * bits;
+            int value = 0;
+            for (int read = -(position % Byte.SIZE); read < bits; read += Byte.SIZE) {
+                int b = Byte.toUnsignedInt(records.get(offset + (position + Math.max(read, 0)) / Byte.SIZE));
+                value |= read < 0 ? b >>> -read : b << read;
+            }
+            int index = value & mask;
+            if (index >= alphabet.length) {
+                throw new IOException("Corrupt corpus file, letter out of the alphabet");
+            }
+            letters[j] = alphabet[index];
+        }
+        return NGram.copyOf(letters);
+    }
+
+    /**
+     * Converts a text word list into a corpus file.
+     * Usage: CorpusFile wordListPath wordSize outputPath [--sorted]
+     * @param args command line arguments
+     * @throws IOException if the corpus file can not be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: CorpusFile wordListPath wordSize outputPath [--sorted]");
+            return;
+        }
+        Corpus corpus = Game.corpusFromFile(args[0], Integer.parseInt(args[1]));
+        boolean sorted = args.length > 3 && args[3].equals("--sorted");
+        write(corpus, Paths.get(args[2]), sorted);
+        System.out.println("Wrote " + corpus.size() + " words to " + args[2]);
+    }
+}
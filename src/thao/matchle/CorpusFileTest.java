@@ -0,0 +1,114 @@
+package thao.matchle;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class CorpusFileTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Corpus corpus(String... words) {
+        Corpus.Builder builder = Corpus.Builder.empty(words[0].length());
+        for (String word : words) {
+            builder.add(NGram.from(word));
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Corpus corpus = Game.corpusFromFile("wordlist.txt", 5);
+        Path file = folder.getRoot().toPath().resolve("words" + CorpusFile.EXTENSION);
+        CorpusFile.write(corpus, file, false);
+        Corpus read = CorpusFile.read(file);
+        assertEquals(corpus.corpus(), read.corpus());
+        assertEquals(corpus.fingerprint(), read.fingerprint());
+        assertEquals(5, read.wordSize());
+        // Five lowercase letters take five bits each, four bytes per word
+        assertTrue(Files.size(file) <= 100 + corpus.size() * 4L);
+    }
+
+    @Test
+    public void testSortedRecords() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("sorted" + CorpusFile.EXTENSION);
+        CorpusFile.write(corpus("pear", "kiwi", "lime", "date"), file, true);
+        assertEquals(corpus("date", "kiwi", "lime", "pear").corpus(), CorpusFile.read(file).corpus());
+    }
+
+    @Test
+    public void testLargeAlphabet() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("mixed" + CorpusFile.EXTENSION);
+        Corpus corpus = corpus("Crème", "naïve", "ABCDE", "a b c", "中文字詞典", "zzzzz");
+        CorpusFile.write(corpus, file, false);
+        assertEquals(corpus.corpus(), CorpusFile.read(file).corpus());
+    }
+
+    @Test
+    public void testSingleLetterAlphabet() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("single" + CorpusFile.EXTENSION);
+        CorpusFile.write(corpus("aaaaaaaaaaaaaaaa"), file, false);
+        assertEquals(List.of(NGram.from("aaaaaaaaaaaaaaaa")), List.copyOf(CorpusFile.read(file).corpus()));
+    }
+
+    @Test
+    public void testCorruptFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("corrupt" + CorpusFile.EXTENSION);
+        CorpusFile.write(corpus("apple", "grape"), file, false);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+        try {
+            CorpusFile.read(file);
+            fail("Expected IOException due to checksum mismatch.");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("checksum"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("truncated" + CorpusFile.EXTENSION);
+        CorpusFile.write(corpus("apple", "grape"), file, false);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 1);
+        }
+        CorpusFile.read(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadTextFile() throws IOException {
+        CorpusFile.read(Path.of("wordlist.txt"));
+    }
+
+    @Test
+    public void testIsCorpusFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("words" + CorpusFile.EXTENSION);
+        CorpusFile.write(corpus("apple"), file, false);
+        assertTrue(CorpusFile.isCorpusFile(file));
+        assertFalse(CorpusFile.isCorpusFile(Path.of("wordlist.txt")));
+        assertFalse(CorpusFile.isCorpusFile(folder.newFile().toPath()));
+    }
+
+    @Test
+    public void testGameLoadsCorpusFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("words" + CorpusFile.EXTENSION);
+        CorpusFile.write(corpus("apple", "grape"), file, true);
+        assertEquals(2, Game.corpusFromFile(file.toString(), 5).size());
+        try {
+            Game.corpusFromFile(file.toString(), 4);
+            fail("Expected IllegalArgumentException due to the word size of the corpus file.");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("size 5"));
+        }
+    }
+}
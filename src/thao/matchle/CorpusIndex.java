@@ -0,0 +1,279 @@
+package thao.matchle;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+import thao.matchle.GuessResult.MatchType;
+
+/**
+ * CorpusIndex class answers constraint queries over the words of a corpus with bitsets.
+ * Words are numbered by their id in the corpus. For every position and letter the index holds the set
+ * of words with that letter there, and for every letter the set of words containing it.
+ * Since the match type of a letter only depends on the letter at its own index and on the letters the key contains,
+ * the keys consistent with a GuessResult are a handful of AND and AND NOT operations over these sets:
+ * an exact match keeps the words with the letter at its index, a partial match the words containing the letter
+ * but not at its index, and no match the words not containing the letter.
+ */
+final class CorpusIndex {
+    private static final long[] EMPTY = new long[0];
+
+    /**
+     * Corpus of the index, whose ids number the words.
+     */
+    private final Corpus corpus;
+    private final int wordSize;
+    /**
+     * Sorted distinct letters of the words.
+     */
+    private final char[] alphabet;
+    /**
+     * Words with a letter at a position, indexed by position times the alphabet size plus letter slot.
+     */
+    private final long[][] at;
+    /**
+     * Words containing a letter, indexed by letter slot.
+     */
+    private final long[][] containing;
+
+    private CorpusIndex(Corpus corpus) {
+        assert corpus != null;
+        this.corpus = corpus;
+        this.wordSize = corpus.wordSize();
+
+        BitSet letters = new BitSet();
+        for (NGram word : corpus) {
+            for (int j = 0; j < wordSize; j++) {
+                letters.set(word.charAt(j));
+            }
+        }
+        this.alphabet = new char[letters.cardinality()];
+        int slot = 0;
+        for (int c = letters.nextSetBit(0); c >= 0; c = letters.nextSetBit(c + 1)) {
+            alphabet[slot++] = (char) c;
+        }
+
+        int blocks = blocks(corpus.size());
+        this.at = new long[wordSize * alphabet.length][];
+        this.containing = new long[alphabet.length][];
+        for (int id = 0; id < corpus.size(); id++) {
+            NGram word = corpus.get(id);
+            for (int j = 0; j < wordSize; j++) {
+                int letter = Arrays.binarySearch(alphabet, word.charAt(j));
+                set(at, j * alphabet.length + letter, blocks, id);
+                set(containing, letter, blocks, id);
+            }
+        }
+    }
+
+    private static void set(long[][] sets, int set, int blocks, int id) {
+        if (sets[set] == null) {
+            sets[set] = new long[blocks];
+        }
+        sets[set][id >>> 6] |= 1L << id;
+    }
+
+    /**
+     * Builds the index of the words of a corpus.
+     * @param corpus the corpus to index
+     * @return the index of the corpus, numbering the words by their id in the corpus
+     * @throws NullPointerException if corpus is null
+     */
+    static CorpusIndex of(Corpus corpus) {
+        Objects.requireNonNull(corpus);
+        return new CorpusIndex(corpus);
+    }
+
+    /**
+     * Getter for the number of words in the index.
+     * @return the number of words
+     */
+    int size() {
+        return corpus.size();
+    }
+
+    /**
+     * Getter for a word of the index.
+     * @param id the number of the word
+     * @return the word numbered id
+     * @throws IndexOutOfBoundsException if id is out of bounds
+     */
+    NGram get(int id) {
+        return corpus.get(id);
+    }
+
+    /**
+     * Creates the set of every word of the index.
+     * @return a new bitset holding the numbers of every word
+     */
+    long[] all() {
+        long[] set = new long[blocks(corpus.size())];
+        Arrays.fill(set, -1L);
+        if (corpus.size() % Long.SIZE != 0) {
+            set[set.length - 1] = (1L << corpus.size()) - 1;
+        }
+        return set;
+    }
+
+    /**
+     * Counts the words that would have produced a feedback, without creating any set.
+     * @param result the feedback of a guess against the key
+     * @return the number of words consistent with the feedback
+     * @throws NullPointerException if result is null
+     * @throws IllegalArgumentException if a letter of the guess has no match type
+     */
+    long count(GuessResult result) {
+        Objects.requireNonNull(result);
+        if (result.getGuess().size() > FeedbackCode.MAX_LENGTH) {
+            // Too long to encode, narrow a set instead
+            return retain(all(), result);
+        }
+        return count(result.getGuess(), FeedbackCode.of(result));
+    }
+
+    /**
+     * Counts the words that would have produced a feedback code, without allocating anything:
+     * the index sets of the guess letters are ANDed one block of 64 words at a time and only the bits are counted.
+     * @param guess the guessed n-gram
+     * @param code the FeedbackCode of the guess against the key
+     * @return the number of words consistent with the feedback
+     * @throws NullPointerException if guess is null
+     */
+    long count(NGram guess, long code) {
+        Objects.requireNonNull(guess);
+        if (guess.size() != wordSize) {
+            return countByMatching(guess, code);
+        }
+        int blocks = blocks(corpus.size());
+        long count = 0;
+        for (int block = 0; block < blocks; block++) {
+            long bits = block < blocks - 1 || corpus.size() % Long.SIZE == 0 ? -1L : (1L << corpus.size()) - 1;
+            // Letters are looked up again for every block, which is cheaper than allocating their sets
+            for (int i = 0; i < wordSize && bits != 0; i++) {
+                int letter = Arrays.binarySearch(alphabet, guess.charAt(i));
+                long here = letter < 0 ? 0 : block(at[i * alphabet.length + letter], block);
+                long anywhere = letter < 0 ? 0 : block(containing[letter], block);
+                bits &= switch (FeedbackCode.matchType(code, i)) {
+                    case EXACT -> here;
+                    case PARTIAL -> anywhere & ~here;
+                    case NONE -> ~anywhere;
+                };
+            }
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+
+    private static long block(long[] set, int block) {
+        return set == null || block >= set.length ? 0 : set[block];
+    }
+
+    /**
+     * Fallback of count for guesses of another size than the words, matching every word.
+     */
+    private long countByMatching(NGram guess, long code) {
+        long count = 0;
+        for (int id = 0; id < corpus.size(); id++) {
+            if (NGramMatcher.feedback(corpus.get(id), guess) == code) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Drops from a set the words that would not have produced a feedback.
+     * @param set the bitset of word numbers to narrow in place
+     * @param result the feedback of a guess against the key
+     * @return the number of words left in the set
+     * @throws NullPointerException if set or result is null
+     * @throws IllegalArgumentException if a letter of the guess has no match type
+     */
+    int retain(long[] set, GuessResult result) {
+        Objects.requireNonNull(set);
+        Objects.requireNonNull(result);
+        NGram guess = result.getGuess();
+        if (guess.size() != wordSize) {
+            return retainByMatching(set, result);
+        }
+        long[][] required = new long[wordSize * 2][];
+        long[][] excluded = new long[wordSize * 2][];
+        int requiredCount = 0;
+        int excludedCount = 0;
+        for (int i = 0; i < wordSize; i++) {
+            MatchType matchType = result.getMatchType(i);
+            if (matchType == null) {
+                throw new IllegalArgumentException("Only results with a match type for every letter can be encoded");
+            }
+            int letter = Arrays.binarySearch(alphabet, guess.charAt(i));
+            long[] here = letter < 0 ? EMPTY : orEmpty(at[i * alphabet.length + letter]);
+            long[] anywhere = letter < 0 ? EMPTY : orEmpty(containing[letter]);
+            switch (matchType) {
+                case EXACT -> required[requiredCount++] = here;
+                case PARTIAL -> {
+                    required[requiredCount++] = anywhere;
+                    excluded[excludedCount++] = here;
+                }
+                case NONE -> excluded[excludedCount++] = anywhere;
+            }
+        }
+
+        int remaining = 0;
+        for (int block = 0; block < set.length; block++) {
+            long bits = set[block];
+            for (int k = 0; k < requiredCount && bits != 0; k++) {
+                bits &= block < required[k].length ? required[k][block] : 0;
+            }
+            for (int k = 0; k < excludedCount && bits != 0; k++) {
+                bits &= block < excluded[k].length ? ~excluded[k][block] : -1L;
+            }
+            set[block] = bits;
+            remaining += Long.bitCount(bits);
+        }
+        return remaining;
+    }
+
+    private static long[] orEmpty(long[] set) {
+        return set == null ? EMPTY : set;
+    }
+
+    /**
+     * Fallback of retain for guesses of another size than the words, matching every word of the set.
+     */
+    private int retainByMatching(long[] set, GuessResult result) {
+        long code = FeedbackCode.of(result);
+        int remaining = 0;
+        for (int block = 0; block < set.length; block++) {
+            for (long bits = set[block]; bits != 0; bits &= bits - 1) {
+                int id = block * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                if (NGramMatcher.feedback(corpus.get(id), result.getGuess()) != code) {
+                    set[block] &= ~(1L << id);
+                }
+            }
+            remaining += Long.bitCount(set[block]);
+        }
+        return remaining;
+    }
+
+    /**
+     * Collects the words of a set.
+     * @param set the bitset of word numbers
+     * @param count the number of words in the set
+     * @return the words of the set, in number order
+     * @throws NullPointerException if set is null
+     */
+    NGram[] words(long[] set, int count) {
+        Objects.requireNonNull(set);
+        NGram[] selected = new NGram[count];
+        int i = 0;
+        for (int block = 0; block < set.length; block++) {
+            for (long bits = set[block]; bits != 0; bits &= bits - 1) {
+                selected[i++] = corpus.get(block * Long.SIZE + Long.numberOfTrailingZeros(bits));
+            }
+        }
+        return selected;
+    }
+
+    private static int blocks(int size) {
+        return (size + Long.SIZE - 1) / Long.SIZE;
+    }
+}
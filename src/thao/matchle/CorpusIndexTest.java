@@ -0,0 +1,125 @@
+package thao.matchle;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import thao.matchle.GuessResult.MatchType;
+
+public class CorpusIndexTest {
+    private static final Corpus WORDS = Game.corpusFromFile("wordlist.txt", 5);
+
+    private static long countByMatching(GuessResult result, Corpus corpus) {
+        long code = FeedbackCode.of(result);
+        return corpus.stream().filter(n -> NGramMatcher.feedback(n, result.getGuess()) == code).count();
+    }
+
+    @Test
+    public void testCountMatchesMatcher() {
+        CorpusIndex index = WORDS.index();
+        List<NGram> words = WORDS.stream().limit(40).toList();
+        for (NGram key : words) {
+            for (NGram guess : words) {
+                GuessResult result = NGramMatcher.of(key, guess).match();
+                assertEquals(countByMatching(result, WORDS), index.count(result));
+            }
+        }
+    }
+
+    @Test
+    public void testCountCodeAllocatesNothing() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        Assume.assumeTrue(allocations.isThreadAllocatedMemoryEnabled());
+        CorpusIndex index = WORDS.index();
+        NGram guess = NGram.from("crane");
+        long sink = 0;
+        for (long code = 0; code < FeedbackCode.count(5); code++) {
+            sink += index.count(guess, code);
+        }
+        long before = allocations.getCurrentThreadAllocatedBytes();
+        for (long code = 0; code < FeedbackCode.count(5); code++) {
+            sink += index.count(guess, code);
+        }
+        long allocated = allocations.getCurrentThreadAllocatedBytes() - before;
+        // Every code partitions the corpus
+        assertEquals(2L * WORDS.size(), sink);
+        // A set of the corpus per count would take tens of kilobytes over every code
+        assertTrue("Allocated " + allocated + " bytes", allocated < 10_000);
+    }
+
+    @Test
+    public void testRetainAcrossResults() {
+        CorpusIndex index = WORDS.index();
+        NGram key = WORDS.iterator().next();
+        long[] set = index.all();
+        int remaining = index.size();
+        Corpus candidates = WORDS;
+        for (String guess : List.of("other", "which", "about")) {
+            GuessResult result = NGramMatcher.of(key, NGram.from(guess)).match();
+            remaining = index.retain(set, result);
+            Corpus.Builder builder = Corpus.Builder.empty(5);
+            long code = FeedbackCode.of(result);
+            candidates.stream().filter(n -> NGramMatcher.feedback(n, result.getGuess()) == code).forEach(builder::add);
+            candidates = builder.build();
+            assertEquals(candidates.size(), remaining);
+            assertEquals(candidates.corpus(), Set.of(index.words(set, remaining)));
+        }
+        assertTrue(Set.of(index.words(set, remaining)).contains(key));
+    }
+
+    @Test
+    public void testLettersOutsideAlphabet() {
+        CorpusIndex index = Corpus.Builder.empty(3).add(NGram.from("abc")).add(NGram.from("abd")).build().index();
+        // z is in no word, so it can only be reported as no match
+        assertEquals(2, index.count(NGramMatcher.of(NGram.from("abc"), NGram.from("zzz")).match()));
+        Map<IndexedCharacter, MatchType> exact = new HashMap<>();
+        exact.put(new IndexedCharacter(0, 'z'), MatchType.EXACT);
+        exact.put(new IndexedCharacter(1, 'b'), MatchType.EXACT);
+        exact.put(new IndexedCharacter(2, 'c'), MatchType.EXACT);
+        assertEquals(0, index.count(GuessResult.of(NGram.from("zbc"), exact)));
+    }
+
+    @Test
+    public void testAllCoversEveryWord() {
+        Corpus.Builder builder = Corpus.Builder.empty(2);
+        for (char a = 'a'; a <= 'z'; a++) {
+            for (char b = 'a'; b <= 'c'; b++) {
+                builder.add(NGram.from("" + a + b));
+            }
+        }
+        CorpusIndex index = builder.build().index();
+        assertEquals(78, index.size());
+        long[] all = index.all();
+        assertEquals(78, Long.bitCount(all[0]) + Long.bitCount(all[1]));
+        assertEquals(Set.of(index.words(all, 78)).size(), 78);
+    }
+
+    @Test
+    public void testGuessOfAnotherSize() {
+        Corpus corpus = Corpus.Builder.empty(3).add(NGram.from("abc")).add(NGram.from("xyz")).build();
+        GuessResult result = NGramMatcher.of(NGram.from("abc"), NGram.from("ab")).match();
+        assertEquals(countByMatching(result, corpus), corpus.index().count(result));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncompleteResult() {
+        Map<IndexedCharacter, MatchType> partial = new HashMap<>();
+        partial.put(new IndexedCharacter(0, 'a'), MatchType.EXACT);
+        WORDS.index().count(GuessResult.of(NGram.from("apple"), partial));
+    }
+
+    @Test
+    public void testIndexIsKept() {
+        assertSame(WORDS.index(), WORDS.index());
+    }
+}
@@ -0,0 +1,166 @@
+package thao.matchle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * CorpusLoader class loads a corpus from a word list holding one word per line.
+ * The file is memory-mapped and scanned byte by byte: every line is trimmed and filtered by length
+ * in place, and the n-grams of ASCII words are built straight from the mapped bytes,
+ * so no String or list is created for the lines of the file.
+ * Lines holding other characters are decoded as UTF-8 on their own.
+ */
+final class CorpusLoader {
+    /**
+     * Largest part of the file mapped at once. A line longer than a window is skipped.
+     */
+    static final int WINDOW = 1 << 30;
+    /**
+     * Word size keeping the words of every size.
+     */
+    static final int ANY_SIZE = 0;
+
+    private final int wordSize;
+    /**
+     * Words loaded so far, in file order, and the set used to skip duplicates.
+     */
+    private NGram[] words = new NGram[1024];
+    private int count;
+    private final Set<NGram> seen = new HashSet<>();
+    /**
+     * Whether the scan is in the middle of an overlong line, up to its end.
+     */
+    private boolean skipping;
+
+    private CorpusLoader(int wordSize) {
+        assert wordSize >= 0;
+        this.wordSize = wordSize;
+    }
+
+    /**
+     * Loads the words of a given size from a word list.
+     * Lines are trimmed of the whitespace around them, as by String.trim, before their length is checked.
+     * @param file the word list, encoded in UTF-8
+     * @param wordSize the size of the words to keep
+     * @return the corpus of the words of the word list of the given size
+     * @throws NullPointerException if file is null
+     * @throws IllegalArgumentException if wordSize is less than or equal to 0
+     * @throws IllegalStateException if the word list has no word of the given size
+     * @throws IOException if the file can not be read or is not valid UTF-8
+     */
+    static Corpus load(Path file, int wordSize) throws IOException {
+        Objects.requireNonNull(file);
+        if (wordSize <= 0) {
+            throw new IllegalArgumentException("Word size must be greater than 0");
+        }
+        return Corpus.ofDistinct(words(file, wordSize));
+    }
+
+    /**
+     * Loads the distinct words of a word list in file order, trimmed as by load.
+     * @param file the word list, encoded in UTF-8
+     * @param wordSize the size of the words to keep, or ANY_SIZE to keep every non-empty word
+     * @return the distinct words of the word list
+     * @throws NullPointerException if file is null
+     * @throws IOException if the file can not be read or is not valid UTF-8
+     */
+    static NGram[] words(Path file, int wordSize) throws IOException {
+        Objects.requireNonNull(file);
+        CorpusLoader loader = new CorpusLoader(wordSize);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(WINDOW, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int scanned = loader.scan(window, position + length == size);
+                if (scanned == 0 && position + length < size) {
+                    // The window holds part of an overlong line only, skip it
+                    loader.skipping = true;
+                    scanned = (int) length;
+                }
+                position += scanned;
+            }
+        }
+        return Arrays.copyOf(loader.words, loader.count);
+    }
+
+    /**
+     * Scans the complete lines of a window.
+     * @param window the mapped bytes
+     * @param last whether the window ends at the end of the file, which then also ends the last line
+     * @return the number of bytes of the complete lines scanned
+     */
+    private int scan(ByteBuffer window, boolean last) throws IOException {
+        int limit = window.limit();
+        int start = 0;
+        for (int i = 0; i < limit; i++) {
+            byte b = window.get(i);
+            if (b == '\n' || b == '\r') {
+                if (!skipping) {
+                    line(window, start, i);
+                }
+                skipping = false;
+                start = i + 1;
+            }
+        }
+        if (last && start < limit && !skipping) {
+            line(window, start, limit);
+            start = limit;
+        }
+        return start;
+    }
+
+    /**
+     * Adds the word of a line if it has the right size.
+     * @param window the mapped bytes
+     * @param from the index of the first byte of the line, inclusive
+     * @param to the index of the line end, exclusive
+     */
+    private void line(ByteBuffer window, int from, int to) throws IOException {
+        // Bytes up to the space are the characters String.trim removes, and never part of a multi-byte character
+        while (from < to && Byte.toUnsignedInt(window.get(from)) <= ' ') {
+            from++;
+        }
+        while (to > from && Byte.toUnsignedInt(window.get(to - 1)) <= ' ') {
+            to--;
+        }
+        // Every character takes at least one byte
+        if (to - from < Math.max(wordSize, 1)) {
+            return;
+        }
+        boolean ascii = true;
+        for (int i = from; i < to && ascii; i++) {
+            ascii = window.get(i) >= 0;
+        }
+        if (ascii) {
+            if (wordSize == ANY_SIZE || to - from == wordSize) {
+                add(NGram.fromAscii(window, from, to));
+            }
+            return;
+        }
+        String word = StandardCharsets.UTF_8.newDecoder().decode(window.slice(from, to - from)).toString();
+        if (wordSize == ANY_SIZE || word.length() == wordSize) {
+            add(NGram.from(word));
+        }
+    }
+
+    private void add(NGram n) {
+        if (!seen.add(n)) {
+            return;
+        }
+        if (count == words.length) {
+            words = Arrays.copyOf(words, count * 2);
+        }
+        words[count++] = n;
+    }
+}
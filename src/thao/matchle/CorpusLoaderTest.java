@@ -0,0 +1,90 @@
+package thao.matchle;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class CorpusLoaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path write(String content) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static Set<String> words(Corpus corpus) {
+        return corpus.stream().map(NGram::toString).collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testLoadTrimsAndFilters() throws IOException {
+        Path file = write("apple\n  grape \t\r\nkiwi\r\npeach\rbanana\n\n   \nmango");
+        Corpus corpus = CorpusLoader.load(file, 5);
+        assertEquals(Set.of("apple", "grape", "peach", "mango"), words(corpus));
+        assertEquals(5, corpus.wordSize());
+    }
+
+    @Test
+    public void testLoadSkipsDuplicates() throws IOException {
+        Corpus corpus = CorpusLoader.load(write("apple\napple\n apple\ngrape\n"), 5);
+        assertEquals(2, corpus.size());
+    }
+
+    @Test
+    public void testLoadMatchesLineByLineReading() throws IOException {
+        Path file = Path.of("wordlist.txt");
+        Set<String> expected = Files.lines(file).map(String::trim)
+                                    .filter(word -> word.length() == 5).collect(Collectors.toSet());
+        Corpus corpus = CorpusLoader.load(file, 5);
+        assertEquals(expected, words(corpus));
+    }
+
+    @Test
+    public void testLoadNonAsciiWords() throws IOException {
+        Corpus corpus = CorpusLoader.load(write("crème\ncafé\nnaïve\nABCDE\n"), 5);
+        assertEquals(Set.of("crème", "naïve", "ABCDE"), words(corpus));
+        assertTrue(corpus.contains(NGram.from("crème")));
+        assertTrue(corpus.contains(NGram.from("ABCDE")));
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadMalformedUtf8() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[] {'a', 'b', (byte) 0xff, 'c', 'd', '\n'});
+        CorpusLoader.load(file, 5);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLoadWithoutWordsOfSize() throws IOException {
+        CorpusLoader.load(write("kiwi\nbanana\n"), 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoadInvalidWordSize() throws IOException {
+        CorpusLoader.load(write("apple\n"), 0);
+    }
+
+    @Test
+    public void testFromAscii() {
+        ByteBuffer bytes = ByteBuffer.wrap("xxapplexxAPPLExxthirteenchars".getBytes(StandardCharsets.US_ASCII));
+        NGram apple = NGram.fromAscii(bytes, 2, 7);
+        assertEquals(NGram.from("apple"), apple);
+        assertTrue(apple.isPacked());
+        NGram upper = NGram.fromAscii(bytes, 9, 14);
+        assertEquals(NGram.from("APPLE"), upper);
+        assertFalse(upper.isPacked());
+        assertEquals(NGram.from("thirteenchars"), NGram.fromAscii(bytes, 16, 29));
+    }
+}
@@ -0,0 +1,147 @@
+package thao.matchle;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CorpusRegistry class caches the corpora loaded from word lists so that a word list is parsed once
+ * and then shared by every game played on it. Corpora are immutable, so sharing them is safe.
+ * Every word of a word list is loaded at once into a Lexicon, so games of every word size share one load.
+ * A cached word list is reloaded if its file has been modified or resized since it was loaded.
+ * An evicting registry holds its lexicons through soft references, which the garbage collector clears
+ * when memory is tight; the next request for such a word list loads it again.
+ */
+public final class CorpusRegistry {
+    private static final CorpusRegistry shared = new CorpusRegistry(true);
+
+    /**
+     * A cached lexicon together with the state of the file it was loaded from.
+     * @param modified the last modification time of the file, in milliseconds
+     * @param size the size of the file in bytes
+     * @param strong the cached lexicon if it can not be evicted, null otherwise
+     * @param soft the soft reference to the cached lexicon if it can be evicted, null otherwise
+     */
+    private record Entry(long modified, long size, Lexicon strong, SoftReference<Lexicon> soft) {
+        /**
+         * @return the cached lexicon, or null if it has been evicted
+         */
+        Lexicon lexicon() {
+            return strong != null ? strong : soft.get();
+        }
+    }
+
+    /**
+     * Cached lexicons by the absolute, normalized path to their word list.
+     */
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+    private final boolean evicting;
+
+    private CorpusRegistry(boolean evicting) {
+        this.evicting = evicting;
+    }
+
+    /**
+     * Getter for the registry shared by every game of the process, which evicts corpora when memory is tight.
+     * @return the shared CorpusRegistry
+     */
+    public static CorpusRegistry shared() {
+        return shared;
+    }
+
+    /**
+     * Creates a new, empty registry.
+     * @param evicting whether the garbage collector may evict corpora when memory is tight
+     * @return a new CorpusRegistry
+     */
+    public static CorpusRegistry of(boolean evicting) {
+        return new CorpusRegistry(evicting);
+    }
+
+    /**
+     * Gets the corpus of a word list, loading the word list only if it is not cached or its file has changed.
+     * @param corpusFilePath the path to the corpus file
+     * @param wordSize the size of the words in the corpus
+     * @return the shared Corpus
+     * @throws NullPointerException if corpusFilePath is null
+     * @throws IllegalArgumentException if wordSize is less than or equal to 0
+     * @throws IllegalStateException if the word list has no word of the size
+     * @throws RuntimeException if there is an error loading the corpus from the file
+     */
+    public Corpus get(String corpusFilePath, int wordSize) {
+        Objects.requireNonNull(corpusFilePath);
+        if (wordSize <= 0) {
+            throw new IllegalArgumentException("Word size must be greater than 0");
+        }
+        return lexicon(corpusFilePath).corpus(wordSize);
+    }
+
+    /**
+     * Gets the lexicon of every word of a word list, loading it only if it is not cached or its file has changed.
+     * @param corpusFilePath the path to the corpus file
+     * @return the shared Lexicon
+     * @throws NullPointerException if corpusFilePath is null
+     * @throws RuntimeException if there is an error loading the lexicon from the file
+     */
+    public Lexicon lexicon(String corpusFilePath) {
+        Objects.requireNonNull(corpusFilePath);
+        Path path = Paths.get(corpusFilePath).toAbsolutePath().normalize();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading corpus from file: " + corpusFilePath, e);
+        }
+        long modified = attributes.lastModifiedTime().toMillis();
+
+        // Hold the lexicon strongly until it is returned, so that it can not be evicted in between
+        Lexicon[] lexicon = new Lexicon[1];
+        entries.compute(path, (key, entry) -> {
+            if (entry != null && entry.modified() == modified && entry.size() == attributes.size()) {
+                lexicon[0] = entry.lexicon();
+            }
+            if (lexicon[0] == null) {
+                lexicon[0] = Game.lexiconFromFile(corpusFilePath);
+                return entry(modified, attributes.size(), lexicon[0]);
+            }
+            return entry;
+        });
+        return lexicon[0];
+    }
+
+    private Entry entry(long modified, long size, Lexicon lexicon) {
+        return evicting ? new Entry(modified, size, null, new SoftReference<>(lexicon)) : new Entry(modified, size, lexicon, null);
+    }
+
+    /**
+     * Number of word lists cached, including the ones the garbage collector may have evicted since.
+     * @return the number of cache entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes the corpora loaded from a word list from the cache.
+     * @param corpusFilePath the path to the corpus file
+     * @throws NullPointerException if corpusFilePath is null
+     */
+    public void evict(String corpusFilePath) {
+        Objects.requireNonNull(corpusFilePath);
+        Path path = Paths.get(corpusFilePath).toAbsolutePath().normalize();
+        entries.remove(path);
+    }
+
+    /**
+     * Removes every corpus from the cache.
+     */
+    public void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,68 @@
+package thao.matchle;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+public class CorpusRegistryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testGetSharesCorpus() {
+        CorpusRegistry registry = CorpusRegistry.of(false);
+        Corpus corpus = registry.get("wordlist.txt", 5);
+        assertSame(corpus, registry.get("wordlist.txt", 5));
+        assertSame(corpus, registry.get("./wordlist.txt", 5));
+        assertNotSame(corpus, registry.get("wordlist.txt", 4));
+        // Every word size is served from the same load
+        assertSame(registry.lexicon("wordlist.txt").corpus(4), registry.get("wordlist.txt", 4));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void testGetReloadsModifiedFile() throws IOException {
+        Path file = folder.newFile("words.txt").toPath();
+        Files.writeString(file, "apple\ngrape\n");
+        CorpusRegistry registry = CorpusRegistry.of(false);
+        Corpus corpus = registry.get(file.toString(), 5);
+        assertEquals(2, corpus.size());
+
+        Files.writeString(file, "apple\ngrape\npeach\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+        Corpus reloaded = registry.get(file.toString(), 5);
+        assertEquals(3, reloaded.size());
+        assertSame(reloaded, registry.get(file.toString(), 5));
+    }
+
+    @Test
+    public void testEvict() {
+        CorpusRegistry registry = CorpusRegistry.of(true);
+        Corpus corpus = registry.get("wordlist.txt", 5);
+        registry.evict("wordlist.txt");
+        assertEquals(0, registry.size());
+        assertNotSame(corpus, registry.get("wordlist.txt", 5));
+    }
+
+    @Test
+    public void testGetWithInvalidFile() {
+        try {
+            CorpusRegistry.of(true).get("invalid_file.txt", 5);
+            fail("Expected RuntimeException due to invalid file path.");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("Error loading corpus from file"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetWithInvalidWordSize() {
+        CorpusRegistry.shared().get("wordlist.txt", 0);
+    }
+}
@@ -146,4 +146,74 @@ public class CorpusTest {
         Corpus corpus = builder.build();
         corpus.contains(null); // Should throw NullPointerException
     }
+
+    @Test
+    public void testFingerprint() {
+        Corpus corpus1 = Corpus.Builder.empty(4).add(NGram.from("test")).add(NGram.from("abcd")).build();
+        Corpus corpus2 = Corpus.Builder.empty(4).add(NGram.from("abcd")).add(NGram.from("test")).build();
+        Corpus corpus3 = Corpus.Builder.empty(4).add(NGram.from("abcd")).build();
+        assertEquals(corpus1.fingerprint(), corpus2.fingerprint());
+        assertNotEquals(corpus1.fingerprint(), corpus3.fingerprint());
+    }
+
+    @Test
+    public void testGetAndIdOf() {
+        Corpus corpus = Corpus.Builder.empty(4).add(NGram.from("test")).add(NGram.from("abcd")).build();
+        assertEquals(NGram.from("test"), corpus.get(0));
+        assertEquals(NGram.from("abcd"), corpus.get(1));
+        assertEquals(1, corpus.idOf(NGram.from("abcd")));
+        assertEquals(-1, corpus.idOf(NGram.from("none")));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() {
+        Corpus.Builder.empty(4).add(NGram.from("test")).build().get(1);
+    }
+
+    @Test
+    public void testIdsOfSharedStore() {
+        Lexicon lexicon = Lexicon.of(new NGram[] {NGram.from("abc"), NGram.from("test"), NGram.from("abcd")});
+        Corpus corpus = lexicon.corpus(4);
+        assertEquals(0, corpus.idOf(NGram.from("test")));
+        assertEquals(NGram.from("abcd"), corpus.get(1));
+        assertEquals(-1, corpus.idOf(NGram.from("abc")));
+    }
+
+    @Test
+    public void testView() {
+        Corpus corpus = Corpus.Builder.empty(4).add(NGram.from("test")).add(NGram.from("abcd")).build();
+        assertEquals(List.of(NGram.from("test"), NGram.from("abcd")), corpus.view());
+        try {
+            corpus.view().add(NGram.from("more"));
+            fail("Expected UnsupportedOperationException due to the view being unmodifiable.");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(2, corpus.size());
+        }
+    }
+
+    @Test
+    public void testIntern() {
+        Corpus corpus = Corpus.Builder.empty(4).add(NGram.from("test")).add(NGram.from("abcd")).build();
+        assertSame(corpus.get(1), corpus.intern("abcd").orElseThrow());
+        assertSame(corpus.intern("abcd").orElseThrow(), corpus.intern(new StringBuilder("abcd")).orElseThrow());
+        assertEquals(1, corpus.idOf("abcd"));
+        assertTrue(corpus.intern("none").isEmpty());
+        assertTrue(corpus.intern("abc").isEmpty());
+        assertEquals(-1, corpus.idOf("abcde"));
+    }
+
+    @Test
+    public void testInternInSharedStore() {
+        Lexicon lexicon = Lexicon.of(new NGram[] {NGram.from("abc"), NGram.from("test"), NGram.from("abcd")});
+        Corpus corpus = lexicon.corpus(4);
+        assertEquals(0, corpus.idOf("test"));
+        assertSame(corpus.get(1), corpus.intern("abcd").orElseThrow());
+        assertTrue(corpus.intern("abc").isEmpty());
+        assertSame(lexicon.corpus(3).get(0), lexicon.corpus(3).intern("abc").orElseThrow());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testInternNull() {
+        Corpus.Builder.empty(4).add(NGram.from("test")).build().intern(null);
+    }
 }
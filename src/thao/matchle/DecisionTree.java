@@ -0,0 +1,440 @@
+package thao.matchle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * DecisionTree class holds the complete plan of a strategy over a corpus: the guess to make first,
+ * then for every feedback the guess to make next, and so on until every key is found.
+ * Once the tree is built, serving a move is a single map lookup whatever the size of the corpus.
+ * Every guess is drawn from the candidates left at its node, so every node finds exactly one key.
+ */
+public final class DecisionTree {
+    /**
+     * Marks the start of a decision tree file, "MDTR" in ASCII.
+     */
+    private static final int MAGIC = 0x4D445452;
+    private static final int VERSION = 2;
+    /**
+     * Size of the header: magic, version, word size, node count, letter width and corpus fingerprint.
+     */
+    private static final int HEADER_BYTES = 5 * Integer.BYTES + Long.BYTES;
+
+    /**
+     * A node of the tree.
+     * @param guess the guess to make at this node
+     * @param children the node to move to for every feedback code other than an exact match
+     */
+    record Node(NGram guess, Map<Long, Node> children) {
+    }
+
+    private final Node root;
+    private final int wordSize;
+    /**
+     * Fingerprint of the corpus the tree was built over.
+     */
+    private final long fingerprint;
+
+    private DecisionTree(Node root, int wordSize, long fingerprint) {
+        assert root != null;
+        this.root = root;
+        this.wordSize = wordSize;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Builds the tree of a strategy over a corpus, building the subtrees in parallel.
+     * @param corpus the corpus the key is drawn from
+     * @param strategy the factory building the strategy over a corpus of candidates, such as WorstCaseStrategy::from
+     * @return the decision tree
+     * @throws NullPointerException if corpus or strategy is null
+     */
+    public static DecisionTree build(Corpus corpus, Function<Corpus, ? extends MatchingStrategy> strategy) {
+        Objects.requireNonNull(corpus);
+        Objects.requireNonNull(strategy);
+        FeedbackMatrix.registerFor(corpus);
+        return new DecisionTree(ForkJoinPool.commonPool().invoke(new Builder(corpus, strategy)), corpus.wordSize(),
+                                corpus.fingerprint());
+    }
+
+    /**
+     * Builds the subtree of a set of candidates, one task per child.
+     */
+    private static final class Builder extends RecursiveTask<Node> {
+        private static final long serialVersionUID = 1L;
+
+        // Transient since tasks are never serialized
+        private final transient Corpus candidates;
+        private final transient Function<Corpus, ? extends MatchingStrategy> strategy;
+
+        private Builder(Corpus candidates, Function<Corpus, ? extends MatchingStrategy> strategy) {
+            this.candidates = candidates;
+            this.strategy = strategy;
+        }
+
+        @Override
+        protected Node compute() {
+            NGram guess = candidates.size() == 1 ? candidates.iterator().next() : strategy.apply(candidates).guess();
+            Map<Long, Corpus.Builder> buckets = new LinkedHashMap<>();
+            for (NGram key : candidates) {
+                long code = NGramMatcher.feedback(key, guess);
+                if (code != FeedbackCode.EXACT_MATCH) {
+                    buckets.computeIfAbsent(code, c -> Corpus.Builder.empty(candidates.wordSize())).add(key);
+                }
+            }
+            Map<Long, Builder> tasks = new LinkedHashMap<>();
+            buckets.forEach((code, bucket) -> tasks.put(code, new Builder(bucket.build(), strategy)));
+            invokeAll(tasks.values());
+
+            Map<Long, Node> children = new HashMap<>();
+            tasks.forEach((code, task) -> children.put(code, task.join()));
+            return new Node(guess, Collections.unmodifiableMap(children));
+        }
+    }
+
+    /**
+     * Getter for the root of the tree.
+     * @return the node of the first guess
+     */
+    Node root() {
+        return root;
+    }
+
+    /**
+     * Getter for the fingerprint of the corpus the tree was built over.
+     * @return the fingerprint of the corpus
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Number of keys the tree finds, which is its number of nodes.
+     * @return the number of keys
+     */
+    public int size() {
+        return size(root);
+    }
+
+    private static int size(Node node) {
+        int size = 1;
+        for (Node child : node.children().values()) {
+            size += size(child);
+        }
+        return size;
+    }
+
+    /**
+     * Depth of the tree, which is the number of guesses needed to find the hardest key.
+     * @return the largest number of guesses to find a key
+     */
+    public int depth() {
+        return depth(root);
+    }
+
+    private static int depth(Node node) {
+        int depth = 0;
+        for (Node child : node.children().values()) {
+            depth = Math.max(depth, depth(child));
+        }
+        return depth + 1;
+    }
+
+    /**
+     * Average number of guesses to find a key, every key being equally likely.
+     * @return the average depth of the nodes
+     */
+    public double averageGuesses() {
+        return (double) totalGuesses(root, 1) / size();
+    }
+
+    private static long totalGuesses(Node node, int level) {
+        long total = level;
+        for (Node child : node.children().values()) {
+            total += totalGuesses(child, level + 1);
+        }
+        return total;
+    }
+
+    /**
+     * Starts a walk of the tree from the first guess.
+     * @return a new Cursor on the root of the tree
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Cursor class walks the tree one move at a time.
+     */
+    public final class Cursor {
+        private Node node = root;
+
+        private Cursor() {
+        }
+
+        /**
+         * Checks if the cursor walks a tree.
+         * @param tree the tree to check
+         * @return true if the cursor was started from the tree, false otherwise
+         */
+        boolean walks(DecisionTree tree) {
+            return tree == DecisionTree.this;
+        }
+
+        /**
+         * Returns the guess to make at the current move.
+         * @return the guess as an NGram
+         */
+        public NGram guess() {
+            return node.guess();
+        }
+
+        /**
+         * Moves to the next guess given the feedback to the current one.
+         * @param result the feedback to the current guess
+         * @return true if the feedback is an exact match and the key is found, false otherwise
+         * @throws NullPointerException if result is null
+         * @throws IllegalArgumentException if the result is not for the current guess or no key gives this feedback
+         */
+        public boolean advance(GuessResult result) {
+            Objects.requireNonNull(result);
+            if (!result.getGuess().equals(node.guess())) {
+                throw new IllegalArgumentException("Result is not for the current guess " + node.guess());
+            }
+            long code = FeedbackCode.of(result);
+            if (code == FeedbackCode.EXACT_MATCH) {
+                return true;
+            }
+            Node next = node.children().get(code);
+            if (next == null) {
+                throw new IllegalArgumentException("No key in the corpus gives this feedback");
+            }
+            node = next;
+            return false;
+        }
+    }
+
+    /**
+     * Writes the tree to a file.
+     * The file holds a header, then the nodes in preorder, each as the letters of its guess, its number of children,
+     * and for every child the feedback code followed by the child. Letters take one byte if every letter of the tree
+     * is below 256 and two otherwise, and counts and codes take as few bytes as the codes of the word size allow,
+     * one byte for words of up to five letters.
+     * @param file the tree file
+     * @throws NullPointerException if file is null
+     * @throws IOException if the file can not be written
+     */
+    public void write(Path file) throws IOException {
+        Objects.requireNonNull(file);
+        int letterWidth = fitsInByte(root) ? Byte.BYTES : Character.BYTES;
+        int width = FeedbackMatrix.width(wordSize);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(wordSize);
+            out.writeInt(size());
+            out.writeInt(letterWidth);
+            out.writeLong(fingerprint);
+            write(out, root, letterWidth, width);
+        }
+    }
+
+    private static boolean fitsInByte(Node node) {
+        for (int i = 0; i < node.guess().size(); i++) {
+            if (node.guess().charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return node.children().values().stream().allMatch(DecisionTree::fitsInByte);
+    }
+
+    private static void write(DataOutputStream out, Node node, int letterWidth, int width) throws IOException {
+        for (int i = 0; i < node.guess().size(); i++) {
+            if (letterWidth == Byte.BYTES) {
+                out.writeByte(node.guess().charAt(i));
+            } else {
+                out.writeChar(node.guess().charAt(i));
+            }
+        }
+        writeUnsigned(out, width, node.children().size());
+        for (Map.Entry<Long, Node> child : node.children().entrySet()) {
+            writeUnsigned(out, width, child.getKey());
+            write(out, child.getValue(), letterWidth, width);
+        }
+    }
+
+    private static void writeUnsigned(DataOutputStream out, int width, long value) throws IOException {
+        switch (width) {
+            case Byte.BYTES -> out.writeByte((int) value);
+            case Short.BYTES -> out.writeShort((int) value);
+            case Integer.BYTES -> out.writeInt((int) value);
+            default -> out.writeLong(value);
+        }
+    }
+
+    private static long readUnsigned(DataInputStream in, int width) throws IOException {
+        return switch (width) {
+            case Byte.BYTES -> in.readUnsignedByte();
+            case Short.BYTES -> in.readUnsignedShort();
+            case Integer.BYTES -> Integer.toUnsignedLong(in.readInt());
+            default -> in.readLong();
+        };
+    }
+
+    /**
+     * A node being read, waiting for its children.
+     */
+    private static final class PendingNode {
+        private final NGram guess;
+        private final Map<Long, Node> children;
+        private int remaining;
+        private long code;
+
+        private PendingNode(NGram guess, int remaining) {
+            this.guess = guess;
+            this.children = new HashMap<>(remaining * 2);
+            this.remaining = remaining;
+        }
+    }
+
+    /**
+     * Reads a tree from a file written by write.
+     * @param file the tree file
+     * @return the tree read from the file
+     * @throws NullPointerException if file is null
+     * @throws IOException if the file can not be read or is not a valid decision tree file
+     */
+    public static DecisionTree read(Path file) throws IOException {
+        Objects.requireNonNull(file);
+        long fileBytes = Files.size(file);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (fileBytes < HEADER_BYTES || in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a decision tree file: " + file);
+            }
+            int wordSize = in.readInt();
+            int nodeCount = in.readInt();
+            int letterWidth = in.readInt();
+            long fingerprint = in.readLong();
+            if (wordSize <= 0 || wordSize > FeedbackCode.MAX_LENGTH
+                    || (letterWidth != Byte.BYTES && letterWidth != Character.BYTES)) {
+                throw new IOException("Corrupt decision tree header: " + file);
+            }
+            // Every node takes at least the letters of its guess
+            if (nodeCount <= 0 || nodeCount > (fileBytes - HEADER_BYTES) / ((long) wordSize * letterWidth)) {
+                throw new IOException("Corrupt decision tree node count: " + file);
+            }
+            List<NGram> words = new ArrayList<>(nodeCount);
+            Node root = read(in, wordSize, letterWidth, nodeCount, words);
+            if (words.size() != nodeCount || Corpus.fingerprint(words) != fingerprint) {
+                throw new IOException("Corrupt decision tree nodes: " + file);
+            }
+            return new DecisionTree(root, wordSize, fingerprint);
+        }
+    }
+
+    /**
+     * Reads a tree from a file written by write, checking that it was built over a corpus.
+     * @param file the tree file
+     * @param corpus the corpus the tree must have been built over
+     * @return the tree read from the file
+     * @throws NullPointerException if file or corpus is null
+     * @throws IOException if the file can not be read, is not a valid decision tree file or was built over another corpus
+     */
+    public static DecisionTree read(Path file, Corpus corpus) throws IOException {
+        Objects.requireNonNull(corpus);
+        DecisionTree tree = read(file);
+        if (tree.fingerprint != corpus.fingerprint()) {
+            throw new IOException("Decision tree " + file + " was built over another corpus");
+        }
+        return tree;
+    }
+
+    /**
+     * Reads the nodes in preorder without recursion, so that a corrupt file can not overflow the stack.
+     */
+    private static Node read(DataInputStream in, int wordSize, int letterWidth, int nodeCount, List<NGram> words)
+            throws IOException {
+        int width = FeedbackMatrix.width(wordSize);
+        long codes = FeedbackCode.count(wordSize);
+        char[] letters = new char[wordSize];
+        Deque<PendingNode> stack = new ArrayDeque<>();
+        stack.push(readNode(in, letters, letterWidth, width, codes, nodeCount, words));
+        while (true) {
+            PendingNode pending = stack.peek();
+            if (pending.remaining > 0) {
+                pending.remaining--;
+                pending.code = readUnsigned(in, width);
+                if (pending.code == FeedbackCode.EXACT_MATCH || pending.code >= codes
+                        || pending.children.containsKey(pending.code)) {
+                    throw new IOException("Corrupt decision tree feedback code " + pending.code);
+                }
+                if (words.size() == nodeCount) {
+                    throw new IOException("Decision tree has more nodes than its header");
+                }
+                stack.push(readNode(in, letters, letterWidth, width, codes, nodeCount, words));
+                continue;
+            }
+            stack.pop();
+            Node node = new Node(pending.guess, Collections.unmodifiableMap(pending.children));
+            if (stack.isEmpty()) {
+                return node;
+            }
+            stack.peek().children.put(stack.peek().code, node);
+        }
+    }
+
+    private static PendingNode readNode(DataInputStream in, char[] letters, int letterWidth, int width, long codes,
+                                        int nodeCount, List<NGram> words) throws IOException {
+        for (int j = 0; j < letters.length; j++) {
+            letters[j] = letterWidth == Byte.BYTES ? (char) in.readUnsignedByte() : in.readChar();
+        }
+        NGram guess = NGram.copyOf(letters);
+        words.add(guess);
+        long childCount = readUnsigned(in, width);
+        // Every feedback but the exact match leads to at most one child, and every child is a node still to read
+        if (childCount < 0 || childCount >= codes || childCount > nodeCount - words.size()) {
+            throw new IOException("Corrupt decision tree child count " + childCount);
+        }
+        return new PendingNode(guess, (int) childCount);
+    }
+
+    /**
+     * Builds the tree of a word list, reports its statistics and writes it to a file.
+     * Usage: DecisionTree wordListPath wordSize strategyClassName outputPath
+     * @param args command line arguments
+     * @throws IOException if the tree can not be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4 || !OpeningBook.STRATEGIES.containsKey(args[2])) {
+            System.out.println("Usage: DecisionTree wordListPath wordSize strategy outputPath");
+            System.out.println("Strategies: " + OpeningBook.STRATEGIES.keySet());
+            return;
+        }
+        Corpus corpus = Game.corpusFromFile(args[0], Integer.parseInt(args[1]));
+        long startTime = System.currentTimeMillis();
+        DecisionTree tree = build(corpus, OpeningBook.STRATEGIES.get(args[2]));
+        long endTime = System.currentTimeMillis();
+        System.out.println("Built tree of " + tree.size() + " keys in " + (endTime - startTime) + " ms");
+        System.out.println("Depth: " + tree.depth() + ", average guesses: " + tree.averageGuesses());
+        tree.write(Paths.get(args[3]));
+    }
+}
@@ -0,0 +1,148 @@
+package thao.matchle;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class DecisionTreeTest {
+    private static final Corpus TEST_CORPUS = Game.corpusFromFile("wordlist.txt", 5);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static int solve(DecisionTree tree, NGram key) {
+        DecisionTree.Cursor cursor = tree.cursor();
+        int guesses = 1;
+        while (!cursor.advance(NGramMatcher.of(key, cursor.guess()).match())) {
+            guesses++;
+        }
+        assertEquals(key, cursor.guess());
+        return guesses;
+    }
+
+    @Test
+    public void testBuildFindsEveryKey() {
+        DecisionTree tree = DecisionTree.build(TEST_CORPUS, WorstCaseStrategy::from);
+        assertEquals(TEST_CORPUS.size(), tree.size());
+        long total = 0;
+        for (NGram key : TEST_CORPUS) {
+            int guesses = solve(tree, key);
+            assertTrue(guesses <= tree.depth());
+            total += guesses;
+        }
+        assertEquals((double) total / TEST_CORPUS.size(), tree.averageGuesses(), 1e-9);
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        DecisionTree tree = DecisionTree.build(TEST_CORPUS, AverageCaseStrategy::from);
+        Path file = folder.newFile("tree.bin").toPath();
+        tree.write(file);
+
+        DecisionTree read = DecisionTree.read(file);
+        assertEquals(tree.size(), read.size());
+        assertEquals(tree.depth(), read.depth());
+        for (NGram key : TEST_CORPUS) {
+            assertEquals(solve(tree, key), solve(read, key));
+        }
+    }
+
+    @Test
+    public void testWriteIsCompact() throws IOException {
+        DecisionTree tree = DecisionTree.build(TEST_CORPUS, WorstCaseStrategy::from);
+        Path file = folder.newFile("tree.bin").toPath();
+        tree.write(file);
+        // Header, then five letters and a child count per node, and a code per node but the root, a byte each
+        long expected = 5 * Integer.BYTES + Long.BYTES + 6L * tree.size() + tree.size() - 1;
+        assertEquals(expected, Files.size(file));
+    }
+
+    @Test
+    public void testWriteAndReadWideLetters() throws IOException {
+        Corpus corpus = Corpus.Builder.empty(3).add(NGram.from("\u0101bc")).add(NGram.from("abc")).build();
+        DecisionTree tree = DecisionTree.build(corpus, WorstCaseStrategy::from);
+        Path file = folder.newFile("wide.bin").toPath();
+        tree.write(file);
+        DecisionTree read = DecisionTree.read(file, corpus);
+        for (NGram key : corpus) {
+            assertEquals(solve(tree, key), solve(read, key));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadOtherCorpus() throws IOException {
+        Corpus corpus = Corpus.Builder.empty(5).add(NGram.from("apple")).add(NGram.from("grape")).build();
+        Path file = folder.newFile("tree.bin").toPath();
+        DecisionTree.build(corpus, WorstCaseStrategy::from).write(file);
+        DecisionTree.read(file, Corpus.Builder.empty(5).add(NGram.from("apple")).add(NGram.from("peach")).build());
+    }
+
+    @Test
+    public void testReadCorruptFile() throws IOException {
+        Corpus corpus = Corpus.Builder.empty(5)
+                .add(NGram.from("apple")).add(NGram.from("grape")).add(NGram.from("peach"))
+                .add(NGram.from("berry")).add(NGram.from("melon")).add(NGram.from("lemon"))
+                .build();
+        Path file = folder.newFile("tree.bin").toPath();
+        DecisionTree.build(corpus, WorstCaseStrategy::from).write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        // Every corrupted byte and every truncation is reported as an IOException, if noticed at all
+        for (int i = 0; i < bytes.length; i++) {
+            for (int value : new int[] {0x00, 0x7F, 0x80, 0xFF}) {
+                byte[] corrupt = bytes.clone();
+                corrupt[i] = (byte) value;
+                Files.write(file, corrupt);
+                try {
+                    DecisionTree.read(file);
+                } catch (IOException e) {
+                    // Expected for most bytes
+                }
+            }
+            Files.write(file, Arrays.copyOf(bytes, i));
+            try {
+                DecisionTree.read(file);
+                fail("Read a tree truncated to " + i + " bytes");
+            } catch (IOException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadNotATree() throws IOException {
+        Path file = folder.newFile("bad.bin").toPath();
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        DecisionTree.read(file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAdvanceWithOtherGuess() {
+        DecisionTree tree = DecisionTree.build(TEST_CORPUS, WorstCaseStrategy::from);
+        NGram other = tree.cursor().guess().equals(NGram.from("apple")) ? NGram.from("grape") : NGram.from("apple");
+        tree.cursor().advance(NGramMatcher.of(other, other).match());
+    }
+
+    @Test
+    public void testGameHint() {
+        Game game = Game.from("wordlist.txt", 5, 20);
+        DecisionTree tree = DecisionTree.build(game.getCorpus(), WorstCaseStrategy::from);
+        while (!game.isOver()) {
+            assertTrue(game.makeGuess(game.hint(tree).toString()));
+        }
+        assertTrue(game.isWin());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGameHintWithTreeOfOtherCorpus() {
+        Game game = Game.from("wordlist.txt", 5, 20);
+        Corpus other = Corpus.Builder.empty(5).add(NGram.from("apple")).add(NGram.from("grape")).build();
+        game.hint(DecisionTree.build(other, WorstCaseStrategy::from));
+    }
+}
@@ -0,0 +1,85 @@
+package thao.matchle;
+
+import java.util.Objects;
+
+/**
+ * This class implements the entropy strategy to find the best guess in a corpus.
+ * The best guess is the one whose feedback carries the most information about the key,
+ * that is the guess maximizing the Shannon entropy of its feedback distribution.
+ */
+public class EntropyStrategy implements MatchingStrategy {
+    private final Corpus corpus;
+    /**
+     * Precomputed feedback of the corpus, or null if feedback is computed by matching.
+     */
+    private final FeedbackMatrix matrix;
+    /**
+     * Indices of the corpus words in the matrix, or null if there is no matrix.
+     */
+    private final int[] keys;
+
+    private EntropyStrategy(Corpus corpus, FeedbackMatrix matrix) {
+        assert corpus != null;
+        this.corpus = corpus;
+        this.matrix = matrix;
+        this.keys = matrix == null ? null : matrix.indicesOf(corpus);
+    }
+
+    /**
+     * Creates a new EntropyStrategy instance with the given corpus.
+     * Feedback is looked up in a registered FeedbackMatrix covering the corpus, if there is one.
+     *
+     * @param corpus The corpus to be used for the strategy.
+     * @return A new EntropyStrategy instance.
+     * @throws NullPointerException if corpus is null.
+     */
+    public static EntropyStrategy from(Corpus corpus) {
+        Objects.requireNonNull(corpus);
+        return new EntropyStrategy(corpus, FeedbackMatrix.lookup(corpus));
+    }
+
+    /**
+     * Creates a new EntropyStrategy instance that looks feedback up in a precomputed matrix
+     * instead of matching the guesses against the corpus.
+     *
+     * @param corpus The corpus to be used for the strategy.
+     * @param matrix The feedback matrix covering every word of the corpus.
+     * @return A new EntropyStrategy instance.
+     * @throws NullPointerException if corpus or matrix is null.
+     * @throws IllegalArgumentException if the matrix does not cover the corpus.
+     */
+    static EntropyStrategy from(Corpus corpus, FeedbackMatrix matrix) {
+        Objects.requireNonNull(corpus);
+        Objects.requireNonNull(matrix);
+        return new EntropyStrategy(corpus, matrix);
+    }
+
+    /**
+     * Calculates the entropy of the feedback of a guess over the corpus, every key being equally likely.
+     * @param guess The NGram representing the guess.
+     * @throws NullPointerException if guess is null.
+     * @throws IllegalStateException if the corpus is empty.
+     * @return The entropy of the feedback in bits, higher is better.
+     */
+    double scoreEntropy(NGram guess) {
+        Objects.requireNonNull(guess);
+        if (corpus.isEmpty()) {
+            throw new IllegalStateException("Can not calculate the score of an empty corpus.");
+        }
+        return FeedbackMatrix.partition(guess, corpus, matrix, keys).entropy();
+    }
+
+    /**
+     * Returns the best guess based on the entropy strategy.
+     * The search minimizes the negated entropy, so ties go to the alphabetically smallest guess.
+     * The search is skipped if a registered OpeningBook or the shared GuessCache has the guess for this corpus.
+     *
+     * @return The best guess as an NGram.
+     */
+    public NGram guess() {
+        return OpeningBook.lookup(EntropyStrategy.class, corpus)
+                          .orElseGet(() -> GuessCache.shared().get(EntropyStrategy.class, corpus,
+                                  () -> BestGuessSearch.minimize(corpus.stream().toArray(NGram[]::new),
+                                                                 ngram -> -scoreEntropy(ngram))));
+    }
+}
@@ -0,0 +1,45 @@
+package thao.matchle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EntropyStrategyTest {
+    private static final Corpus TEST_CORPUS = Corpus.Builder.empty(3)
+            .add(NGram.from("abc"))
+            .add(NGram.from("abx"))
+            .add(NGram.from("axc"))
+            .add(NGram.from("xbc"))
+            .build();
+    private static final EntropyStrategy TEST_STRATEGY = EntropyStrategy.from(TEST_CORPUS);
+
+    @Test
+    public void testFrom() {
+        assertNotNull(TEST_STRATEGY);
+    }
+
+    @Test
+    public void testScoreEntropy() {
+        // abc splits the corpus into four singletons, two bits of information
+        assertEquals(2.0, TEST_STRATEGY.scoreEntropy(NGram.from("abc")), 1e-9);
+        // aqq only tells xbc apart from the three others
+        double expected = -(0.25 * Math.log(0.25) + 0.75 * Math.log(0.75)) / Math.log(2);
+        assertEquals(expected, TEST_STRATEGY.scoreEntropy(NGram.from("aqq")), 1e-9);
+    }
+
+    @Test
+    public void testGuess() {
+        assertEquals(NGram.from("abc"), TEST_STRATEGY.guess());
+    }
+
+    @Test
+    public void testGuessWithMatrix() {
+        EntropyStrategy strategy = EntropyStrategy.from(TEST_CORPUS, FeedbackMatrix.compute(TEST_CORPUS));
+        assertEquals(TEST_STRATEGY.guess(), strategy.guess());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testScoreEntropyWithNullGuess() {
+        TEST_STRATEGY.scoreEntropy(null);
+    }
+}
@@ -0,0 +1,112 @@
+package thao.matchle;
+
+import java.util.Objects;
+
+/**
+ * FeedbackCache class remembers the feedback codes of recent pairs of key and guess, so that the pairs matched
+ * over and over when many games share a corpus are looked up instead of matched again.
+ * <p>
+ * The cache is a fixed array of slots, each holding at most one immutable entry, so its footprint is bounded
+ * by the number of slots. A pair can only live in the slot its hash selects, and a new pair simply replaces
+ * the entry in its slot. Slots are read and written without any lock: writing a reference is atomic and entries
+ * are immutable, so a racing reader sees either the old entry, the new one, or misses.
+ * <p>
+ * The cache is off unless the JVM is started with {@code -Dmatchle.feedbackCache.size=N}, in which case
+ * NGramMatcher uses a shared cache of N slots, rounded up to a power of two.
+ */
+final class FeedbackCache {
+    /**
+     * System property holding the number of slots of the shared cache.
+     */
+    static final String SIZE_PROPERTY = "matchle.feedbackCache.size";
+    /**
+     * Largest number of slots.
+     */
+    static final int MAX_SLOTS = 1 << 26;
+    /**
+     * Returned by get when the pair is not cached. Feedback codes are never negative.
+     */
+    static final long MISS = -1;
+    /**
+     * Cache used by NGramMatcher, or null if the cache is off.
+     */
+    static final FeedbackCache SHARED = Integer.getInteger(SIZE_PROPERTY, 0) > 0
+                                        ? of(Integer.getInteger(SIZE_PROPERTY)) : null;
+
+    /**
+     * Feedback code of a pair.
+     * @param key the key
+     * @param guess the guess
+     * @param code the feedback code of the guess against the key
+     */
+    private record Entry(NGram key, NGram guess, long code) {
+    }
+
+    private final Entry[] slots;
+
+    private FeedbackCache(int slots) {
+        assert Integer.bitCount(slots) == 1;
+        this.slots = new Entry[slots];
+    }
+
+    /**
+     * Creates a new, empty cache.
+     * @param slots the number of pairs the cache can hold, rounded up to a power of two
+     * @return a new FeedbackCache
+     * @throws IllegalArgumentException if slots is less than or equal to 0 or greater than MAX_SLOTS
+     */
+    static FeedbackCache of(int slots) {
+        if (slots <= 0 || slots > MAX_SLOTS) {
+            throw new IllegalArgumentException("Slots must be between 1 and " + MAX_SLOTS);
+        }
+        return new FeedbackCache(slots == 1 ? 1 : Integer.highestOneBit(slots - 1) << 1);
+    }
+
+    /**
+     * Getter for the number of slots.
+     * @return the largest number of pairs held at once
+     */
+    int slots() {
+        return slots.length;
+    }
+
+    /**
+     * Looks the feedback code of a pair up.
+     * @param key the key
+     * @param guess the guess
+     * @return the feedback code of the guess against the key, or MISS if the pair is not cached
+     * @throws NullPointerException if key or guess is null
+     */
+    long get(NGram key, NGram guess) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(guess);
+        Entry entry = slots[slot(key, guess)];
+        if (entry != null && (entry.key == key || entry.key.equals(key))
+                && (entry.guess == guess || entry.guess.equals(guess))) {
+            return entry.code;
+        }
+        return MISS;
+    }
+
+    /**
+     * Caches the feedback code of a pair, replacing the pair held in its slot.
+     * @param key the key
+     * @param guess the guess
+     * @param code the feedback code of the guess against the key
+     * @throws NullPointerException if key or guess is null
+     * @throws IllegalArgumentException if code is negative
+     */
+    void put(NGram key, NGram guess, long code) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(guess);
+        if (code < 0) {
+            throw new IllegalArgumentException("Feedback codes are never negative");
+        }
+        slots[slot(key, guess)] = new Entry(key, guess, code);
+    }
+
+    private int slot(NGram key, NGram guess) {
+        int hash = (31 * key.hashCode() + guess.hashCode()) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (slots.length - 1);
+    }
+}
@@ -0,0 +1,87 @@
+package thao.matchle;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class FeedbackCacheTest {
+    private static final List<NGram> WORDS = List.of("crane", "slate", "trace", "plant", "brick", "stare", "eerie")
+                                                 .stream().map(NGram::from).toList();
+
+    @Test
+    public void testMissThenHit() {
+        FeedbackCache cache = FeedbackCache.of(64);
+        NGram key = NGram.from("crane");
+        NGram guess = NGram.from("trace");
+        assertEquals(FeedbackCache.MISS, cache.get(key, guess));
+        cache.put(key, guess, 42);
+        assertEquals(42, cache.get(key, guess));
+        // Equal n-grams hit as well
+        assertEquals(42, cache.get(NGram.from("crane"), NGram.from("trace")));
+        assertEquals(FeedbackCache.MISS, cache.get(guess, key));
+    }
+
+    @Test
+    public void testSlotsRoundUp() {
+        assertEquals(1, FeedbackCache.of(1).slots());
+        assertEquals(2, FeedbackCache.of(2).slots());
+        assertEquals(4, FeedbackCache.of(3).slots());
+        assertEquals(1024, FeedbackCache.of(1000).slots());
+    }
+
+    @Test
+    public void testSingleSlotReplaces() {
+        FeedbackCache cache = FeedbackCache.of(1);
+        NGram crane = NGram.from("crane");
+        NGram slate = NGram.from("slate");
+        cache.put(crane, slate, 1);
+        cache.put(slate, crane, 2);
+        assertEquals(FeedbackCache.MISS, cache.get(crane, slate));
+        assertEquals(2, cache.get(slate, crane));
+    }
+
+    @Test
+    public void testCachedMatchesFeedback() {
+        FeedbackCache cache = FeedbackCache.of(8);
+        // Twice, so that the second round mixes hits with pairs replaced in their slot
+        for (int round = 0; round < 2; round++) {
+            for (NGram key : WORDS) {
+                for (NGram guess : WORDS) {
+                    assertEquals(NGramMatcher.feedback(key, guess), NGramMatcher.cached(cache, key, guess));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentAccess() {
+        FeedbackCache cache = FeedbackCache.of(16);
+        IntStream.range(0, 100_000).parallel().forEach(i -> {
+            NGram key = WORDS.get(i % WORDS.size());
+            NGram guess = WORDS.get(i / WORDS.size() % WORDS.size());
+            assertEquals(NGramMatcher.feedback(key, guess), NGramMatcher.cached(cache, key, guess));
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroSlots() {
+        FeedbackCache.of(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManySlots() {
+        FeedbackCache.of(FeedbackCache.MAX_SLOTS + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeCode() {
+        FeedbackCache.of(4).put(NGram.from("crane"), NGram.from("slate"), -2);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullKey() {
+        FeedbackCache.of(4).get(null, NGram.from("slate"));
+    }
+}
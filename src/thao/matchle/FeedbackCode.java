@@ -0,0 +1,139 @@
+package thao.matchle;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import thao.matchle.GuessResult.MatchType;
+
+/**
+ * FeedbackCode class packs the match types of a guess into a single long.
+ * Every letter of the guess is one base-3 digit holding the ordinal of its MatchType,
+ * the letter at index 0 being the least significant digit.
+ * Two feedbacks for the same guess are equal if and only if their codes are equal,
+ * which lets the hot path compare and bucket feedback without building a GuessResult.
+ */
+final class FeedbackCode {
+    /**
+     * The longest guess whose feedback fits in a long.
+     */
+    static final int MAX_LENGTH = 39;
+
+    /**
+     * Code of a guess that exactly matches the key, whatever its length.
+     */
+    static final long EXACT_MATCH = 0;
+
+    private static final MatchType[] MATCH_TYPES = MatchType.values();
+    private static final long[] POWERS = new long[MAX_LENGTH + 1];
+
+    static {
+        POWERS[0] = 1;
+        for (int i = 1; i < POWERS.length; i++) {
+            POWERS[i] = POWERS[i - 1] * MATCH_TYPES.length;
+        }
+    }
+
+    private FeedbackCode() {
+        // static utility class
+    }
+
+    /**
+     * Number of distinct codes for a guess of the given length.
+     * @param length the length of the guess
+     * @return 3 to the power of length
+     * @throws IllegalArgumentException if length is negative or greater than MAX_LENGTH
+     */
+    static long count(int length) {
+        validateLength(length);
+        return POWERS[length];
+    }
+
+    /**
+     * Appends the match type of the next, less significant letter to a code.
+     * Matchers fold the letters of a guess from last to first.
+     * @param code the code of the letters after this one
+     * @param matchType the match type of this letter
+     * @return the code extended by one letter
+     */
+    static long append(long code, MatchType matchType) {
+        return code * MATCH_TYPES.length + matchType.ordinal();
+    }
+
+    /**
+     * Gets the match type of one letter out of a code.
+     * @param code the feedback code
+     * @param index the index of the letter in the guess
+     * @return the match type of the letter at the index
+     * @throws IllegalArgumentException if index is negative or not less than MAX_LENGTH
+     */
+    static MatchType matchType(long code, int index) {
+        if (index < 0 || index >= MAX_LENGTH) {
+            throw new IllegalArgumentException("Index must be between 0 and " + (MAX_LENGTH - 1));
+        }
+        return MATCH_TYPES[(int) (code / POWERS[index] % MATCH_TYPES.length)];
+    }
+
+    /**
+     * Checks whether a GuessResult has a match type for every letter of its guess and can be encoded.
+     * @param result the result to check
+     * @return true if every letter of the guess has a match type, false otherwise
+     * @throws NullPointerException if result is null
+     */
+    static boolean isComplete(GuessResult result) {
+        Objects.requireNonNull(result);
+        NGram guess = result.getGuess();
+        if (guess.size() > MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < guess.size(); i++) {
+            if (result.getMatchType(i) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes a GuessResult.
+     * @param result the result to encode
+     * @return the feedback code of the result
+     * @throws NullPointerException if result is null
+     * @throws IllegalArgumentException if a letter of the guess has no match type or the guess is too long
+     */
+    static long of(GuessResult result) {
+        if (!isComplete(result)) {
+            throw new IllegalArgumentException("Only results with a match type for every letter can be encoded");
+        }
+        long code = EXACT_MATCH;
+        for (int i = result.getGuess().size() - 1; i >= 0; i--) {
+            code = append(code, result.getMatchType(i));
+        }
+        return code;
+    }
+
+    /**
+     * Decodes a feedback code back into a GuessResult.
+     * @param guess the guess the code was computed for
+     * @param code the feedback code
+     * @return the GuessResult holding the match type of every letter of the guess
+     * @throws NullPointerException if guess is null
+     * @throws IllegalArgumentException if code is not a valid code for the guess
+     */
+    static GuessResult toGuessResult(NGram guess, long code) {
+        Objects.requireNonNull(guess);
+        if (code < 0 || code >= count(guess.size())) {
+            throw new IllegalArgumentException("Code is out of range for a guess of size " + guess.size());
+        }
+        Map<IndexedCharacter, MatchType> resultMap = new HashMap<>();
+        for (int i = 0; i < guess.size(); i++) {
+            resultMap.put(new IndexedCharacter(i, guess.get(i)), matchType(code, i));
+        }
+        return GuessResult.of(guess, resultMap);
+    }
+
+    private static void validateLength(int length) {
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Length must be between 0 and " + MAX_LENGTH);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package thao.matchle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+import thao.matchle.GuessResult.MatchType;
+
+public class FeedbackCodeTest {
+    @Test
+    public void testCount() {
+        assertEquals(1, FeedbackCode.count(0));
+        assertEquals(243, FeedbackCode.count(5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCountTooLong() {
+        FeedbackCode.count(FeedbackCode.MAX_LENGTH + 1);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        NGram key = NGram.from("grape");
+        NGram guess = NGram.from("apple");
+        GuessResult result = NGramMatcher.of(key, guess).match();
+
+        long code = FeedbackCode.of(result);
+
+        assertEquals(NGramMatcher.feedback(key, guess), code);
+        assertEquals(result, FeedbackCode.toGuessResult(guess, code));
+    }
+
+    @Test
+    public void testMatchType() {
+        long code = NGramMatcher.feedback(NGram.from("grape"), NGram.from("apple"));
+        assertEquals(MatchType.PARTIAL, FeedbackCode.matchType(code, 0));
+        assertEquals(MatchType.NONE, FeedbackCode.matchType(code, 3));
+        assertEquals(MatchType.EXACT, FeedbackCode.matchType(code, 4));
+    }
+
+    @Test
+    public void testExactMatch() {
+        assertEquals(FeedbackCode.EXACT_MATCH, NGramMatcher.feedback(NGram.from("apple"), NGram.from("apple")));
+    }
+
+    @Test
+    public void testIsComplete() {
+        NGram guess = NGram.from("ab");
+        GuessResult partial = GuessResult.of(guess, Map.of(new IndexedCharacter(0, 'a'), MatchType.NONE));
+        assertFalse(FeedbackCode.isComplete(partial));
+        assertTrue(FeedbackCode.isComplete(NGramMatcher.of(guess, guess).match()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfIncompleteResult() {
+        NGram guess = NGram.from("ab");
+        FeedbackCode.of(GuessResult.of(guess, Map.of(new IndexedCharacter(0, 'a'), MatchType.NONE)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testToGuessResultOutOfRange() {
+        FeedbackCode.toGuessResult(NGram.from("ab"), 9);
+    }
+}
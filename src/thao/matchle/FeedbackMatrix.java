@@ -0,0 +1,424 @@
+package thao.matchle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * FeedbackMatrix class holds the feedback code of every guess against every key of a corpus.
+ * The matrix is computed once in parallel, stored off-heap one row per guess, and can be cached on disk
+ * in a file named after the corpus fingerprint so that later runs memory-map it instead of matching again.
+ * Entries take as few bytes as the codes of the word size allow, one byte for words of up to five letters.
+ * <p>
+ * When the JVM is started with {@code -Dmatchle.feedbackMatrix.dir=DIR}, solver sessions, simulations and
+ * decision trees load the matrix of their corpus from DIR and register it, after which the strategies
+ * built over that corpus or any subset of it look their feedback up in the registered matrix.
+ */
+final class FeedbackMatrix {
+    /**
+     * Logger object to log messages.
+     */
+    private static final Logger logger = Logger.getLogger(FeedbackMatrix.class.getName());
+    /**
+     * System property holding the cache directory of the matrices registered for the strategies.
+     */
+    static final String DIRECTORY_PROPERTY = "matchle.feedbackMatrix.dir";
+    /**
+     * Cache directory of the registered matrices, or null if the strategies match instead.
+     */
+    private static final Path DIRECTORY = System.getProperty(DIRECTORY_PROPERTY) == null
+                                          ? null : Paths.get(System.getProperty(DIRECTORY_PROPERTY));
+    /**
+     * Marks the start of a matrix file, "MFBM" in ASCII.
+     */
+    private static final int MAGIC = 0x4D46424D;
+    private static final int VERSION = 1;
+    /**
+     * Size of the header: magic, version, word size, word count, entry width and fingerprint.
+     */
+    private static final int HEADER_BYTES = 5 * Integer.BYTES + Long.BYTES;
+    /**
+     * Extension of the matrix files in the cache directory.
+     */
+    static final String EXTENSION = ".fbm";
+    /**
+     * Matrices consulted by the strategies, by fingerprint of the corpus they were built for.
+     */
+    private static final Map<Long, FeedbackMatrix> registry = new ConcurrentHashMap<>();
+
+    /**
+     * Words of the matrix in row and column order.
+     */
+    private final NGram[] words;
+    private final Map<NGram, Integer> indices;
+    /**
+     * Entries of the matrix, guess-major.
+     */
+    private final ByteBuffer entries;
+    /**
+     * Number of bytes used by each entry.
+     */
+    private final int width;
+
+    private FeedbackMatrix(NGram[] words, ByteBuffer entries, int width) {
+        assert words != null;
+        assert entries != null;
+        this.words = words;
+        this.entries = entries;
+        this.width = width;
+        this.indices = new HashMap<>(words.length * 2);
+        for (int i = 0; i < words.length; i++) {
+            indices.put(words[i], i);
+        }
+    }
+
+    /**
+     * Computes the matrix of a corpus in parallel into off-heap memory, without touching the disk.
+     * @param corpus the corpus whose words are both the guesses and the keys
+     * @return the matrix of the corpus
+     * @throws NullPointerException if corpus is null
+     * @throws IllegalArgumentException if the matrix of the corpus would not fit in a single buffer
+     */
+    static FeedbackMatrix compute(Corpus corpus) {
+        Objects.requireNonNull(corpus);
+        NGram[] words = corpus.stream().toArray(NGram[]::new);
+        int width = width(corpus.wordSize());
+        ByteBuffer entries = ByteBuffer.allocateDirect(Math.toIntExact(entryBytes(words.length, width)));
+        fill(entries, words, width);
+        return new FeedbackMatrix(words, entries, width);
+    }
+
+    /**
+     * Loads the matrix of a corpus from the cache directory, computing and caching it first if needed.
+     * The cached file is memory-mapped, so the matrix does not take heap space.
+     * A cached file that can not be read, was written by another version or does not cover the corpus is rebuilt.
+     * @param corpus the corpus whose words are both the guesses and the keys
+     * @param directory the cache directory, which is created if missing
+     * @return the matrix of the corpus
+     * @throws NullPointerException if corpus or directory is null
+     * @throws IllegalArgumentException if the matrix of the corpus would not fit in a single mapping
+     * @throws RuntimeException if there is an error writing the cache file
+     */
+    static FeedbackMatrix load(Corpus corpus, Path directory) {
+        Objects.requireNonNull(corpus);
+        Objects.requireNonNull(directory);
+        Path file = directory.resolve(Long.toHexString(corpus.fingerprint()) + EXTENSION);
+        try {
+            if (Files.exists(file)) {
+                try {
+                    FeedbackMatrix cached = read(file);
+                    if (cached.covers(corpus)) {
+                        return cached;
+                    }
+                    // Fingerprint collision, rebuild it
+                } catch (IOException e) {
+                    logger.log(Level.INFO, "Rebuilding stale feedback matrix " + file, e);
+                }
+            }
+            Files.createDirectories(directory);
+            return write(corpus, file);
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading feedback matrix from file: " + file, e);
+        }
+    }
+
+    /**
+     * Loads and registers the matrix of a corpus from the directory set by DIRECTORY_PROPERTY,
+     * doing nothing if the property is not set or the matrix is already registered.
+     * A matrix that can not be loaded is logged and skipped, the strategies then match as usual.
+     * @param corpus the corpus whose words are both the guesses and the keys
+     * @throws NullPointerException if corpus is null
+     */
+    static void registerFor(Corpus corpus) {
+        Objects.requireNonNull(corpus);
+        if (DIRECTORY == null || registry.containsKey(corpus.fingerprint())) {
+            return;
+        }
+        try {
+            register(corpus, load(corpus, DIRECTORY));
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Ignoring feedback matrix of " + corpus.size() + " words", e);
+        }
+    }
+
+    /**
+     * Adds a matrix to the registry consulted by the strategies.
+     * @param corpus the corpus the matrix was built for
+     * @param matrix the matrix covering every word of the corpus
+     * @throws NullPointerException if corpus or matrix is null
+     * @throws IllegalArgumentException if the matrix does not cover the corpus
+     */
+    static void register(Corpus corpus, FeedbackMatrix matrix) {
+        Objects.requireNonNull(corpus);
+        Objects.requireNonNull(matrix);
+        if (!matrix.covers(corpus)) {
+            throw new IllegalArgumentException("Feedback matrix does not cover the corpus");
+        }
+        registry.put(corpus.fingerprint(), matrix);
+    }
+
+    /**
+     * Empties the registry, the strategies then match instead.
+     */
+    static void unregisterAll() {
+        registry.clear();
+    }
+
+    /**
+     * Looks a registered matrix covering every word of a corpus up.
+     * @param corpus the corpus the strategy guesses over
+     * @return a registered matrix covering the corpus, or null if there is none
+     * @throws NullPointerException if corpus is null
+     */
+    static FeedbackMatrix lookup(Corpus corpus) {
+        Objects.requireNonNull(corpus);
+        if (registry.isEmpty()) {
+            return null;
+        }
+        FeedbackMatrix matrix = registry.get(corpus.fingerprint());
+        if (matrix != null && matrix.covers(corpus)) {
+            return matrix;
+        }
+        // Candidates narrowed down from a registered corpus
+        for (FeedbackMatrix registered : registry.values()) {
+            if (registered.covers(corpus)) {
+                return registered;
+            }
+        }
+        return null;
+    }
+
+    private static FeedbackMatrix read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a feedback matrix file");
+            }
+            int wordSize = buffer.getInt();
+            int count = buffer.getInt();
+            int width = buffer.getInt();
+            buffer.getLong(); // fingerprint, already matched by the file name
+            // Checked before width and entryBytes, which reject such values with an IllegalArgumentException
+            if (wordSize < 0 || wordSize > FeedbackCode.MAX_LENGTH || width != width(wordSize)
+                    || count < 0 || (long) count * count * width > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt feedback matrix header");
+            }
+            long wordBytes = (long) count * wordSize * Character.BYTES;
+            if (buffer.limit() != HEADER_BYTES + wordBytes + entryBytes(count, width)) {
+                throw new IOException("Truncated feedback matrix file");
+            }
+            NGram[] words = new NGram[count];
+            char[] letters = new char[wordSize];
+            for (int i = 0; i < count; i++) {
+                for (int j = 0; j < wordSize; j++) {
+                    letters[j] = buffer.getChar();
+                }
+                words[i] = NGram.from(new String(letters));
+            }
+            return new FeedbackMatrix(words, buffer.slice(), width);
+        }
+    }
+
+    private static FeedbackMatrix write(Corpus corpus, Path file) throws IOException {
+        NGram[] words = corpus.stream().toArray(NGram[]::new);
+        int wordSize = corpus.wordSize();
+        int width = width(wordSize);
+        long wordBytes = (long) words.length * wordSize * Character.BYTES;
+        long fileBytes = HEADER_BYTES + wordBytes + entryBytes(words.length, width);
+        if (fileBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Feedback matrix of " + words.length + " words is too large to map");
+        }
+
+        // Fill a temporary file and move it in place so that readers never see a partial matrix
+        Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(wordSize).putInt(words.length).putInt(width)
+                  .putLong(corpus.fingerprint());
+            for (NGram word : words) {
+                for (int j = 0; j < wordSize; j++) {
+                    buffer.putChar(word.charAt(j));
+                }
+            }
+            fill(buffer.slice(), words, width);
+            buffer.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return read(file);
+    }
+
+    /**
+     * Fills the entries one guess row per task, in parallel, matching each guess against every key at once.
+     */
+    private static void fill(ByteBuffer entries, NGram[] words, int width) {
+        ColumnarCorpus keys = ColumnarCorpus.of(words);
+        IntStream.range(0, words.length).parallel().forEach(guess -> {
+            long row = (long) guess * words.length;
+            long[] codes = keys.feedback(words[guess]);
+            for (int key = 0; key < words.length; key++) {
+                put(entries, Math.toIntExact((row + key) * width), width, codes[key]);
+            }
+        });
+    }
+
+    private static void put(ByteBuffer entries, int offset, int width, long code) {
+        switch (width) {
+            case Byte.BYTES -> entries.put(offset, (byte) code);
+            case Short.BYTES -> entries.putShort(offset, (short) code);
+            case Integer.BYTES -> entries.putInt(offset, (int) code);
+            default -> entries.putLong(offset, code);
+        }
+    }
+
+    /**
+     * Number of bytes needed to hold any feedback code for words of the given size.
+     */
+    static int width(int wordSize) {
+        long codes = FeedbackCode.count(wordSize);
+        if (codes <= 1 << Byte.SIZE) {
+            return Byte.BYTES;
+        }
+        if (codes <= 1 << Short.SIZE) {
+            return Short.BYTES;
+        }
+        return codes <= 1L << Integer.SIZE ? Integer.BYTES : Long.BYTES;
+    }
+
+    private static long entryBytes(int count, int width) {
+        long bytes = (long) count * count * width;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Feedback matrix of " + count + " words is too large to map");
+        }
+        return bytes;
+    }
+
+    /**
+     * Checks if every word of a corpus is both a guess and a key of the matrix.
+     * @param corpus the corpus to check
+     * @return true if the matrix covers every word of the corpus, false otherwise
+     * @throws NullPointerException if corpus is null
+     */
+    boolean covers(Corpus corpus) {
+        Objects.requireNonNull(corpus);
+        return corpus.stream().allMatch(indices::containsKey);
+    }
+
+    /**
+     * Getter for the number of words, which is both the number of rows and of columns.
+     * @return the number of words in the matrix
+     */
+    int size() {
+        return words.length;
+    }
+
+    /**
+     * Getter for the word at a row or column.
+     * @param index the index of the word
+     * @return the word at the index
+     */
+    NGram get(int index) {
+        return words[index];
+    }
+
+    /**
+     * Looks up the row and column of a word.
+     * @param n the word to look up
+     * @return the index of the word, or -1 if the word is not in the matrix
+     * @throws NullPointerException if n is null
+     */
+    int indexOf(NGram n) {
+        Objects.requireNonNull(n);
+        return indices.getOrDefault(n, -1);
+    }
+
+    /**
+     * Looks up the indices of every word of a corpus, in the corpus iteration order.
+     * @param corpus the corpus to look up
+     * @return the indices of the words of the corpus
+     * @throws NullPointerException if corpus is null
+     * @throws IllegalArgumentException if a word of the corpus is not in the matrix
+     */
+    int[] indicesOf(Corpus corpus) {
+        Objects.requireNonNull(corpus);
+        if (!covers(corpus)) {
+            throw new IllegalArgumentException("Feedback matrix does not cover the corpus");
+        }
+        return corpus.stream().mapToInt(indices::get).toArray();
+    }
+
+    /**
+     * Looks up the feedback of a guess against a key.
+     * @param guess the index of the guess
+     * @param key the index of the key
+     * @return the FeedbackCode of the guess against the key
+     */
+    long feedback(int guess, int key) {
+        int offset = Math.toIntExact(((long) guess * words.length + key) * width);
+        return switch (width) {
+            case Byte.BYTES -> Byte.toUnsignedLong(entries.get(offset));
+            case Short.BYTES -> Short.toUnsignedLong(entries.getShort(offset));
+            case Integer.BYTES -> Integer.toUnsignedLong(entries.getInt(offset));
+            default -> entries.getLong(offset);
+        };
+    }
+
+    /**
+     * Partitions a set of keys by their feedback against a guess, reading the codes from the matrix.
+     * @param guess the index of the guess
+     * @param keys the indices of the keys
+     * @return the partition of the keys induced by the guess
+     * @throws NullPointerException if keys is null
+     */
+    Partition partition(int guess, int[] keys) {
+        Objects.requireNonNull(keys);
+        long[] codes = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            codes[i] = feedback(guess, keys[i]);
+        }
+        return Partition.fromCodes(codes, words[guess].size());
+    }
+
+    /**
+     * Partitions a corpus by the feedback of a guess, reading the codes from a matrix if it has the guess
+     * and matching the guess against the corpus otherwise.
+     * @param guess the guess
+     * @param corpus the corpus to partition
+     * @param matrix the matrix covering the corpus, or null to match
+     * @param keys the indices of the corpus words in the matrix, or null if there is no matrix
+     * @return the partition of the corpus induced by the guess
+     * @throws NullPointerException if guess or corpus is null
+     */
+    static Partition partition(NGram guess, Corpus corpus, FeedbackMatrix matrix, int[] keys) {
+        Objects.requireNonNull(guess);
+        Objects.requireNonNull(corpus);
+        int index = matrix == null ? -1 : matrix.indexOf(guess);
+        return index < 0 ? Partition.of(guess, corpus) : matrix.partition(index, keys);
+    }
+
+    /**
+     * Worst case score of a guess over a set of keys, reading the codes from the matrix
+     * and abandoning the count as soon as a bucket grows past a bound.
+     * @param guess the index of the guess
+     * @param keys the indices of the keys
+     * @param bound the score to beat
+     * @return the size of the largest bucket if it is at most bound, otherwise some value greater than bound
+     * @throws NullPointerException if keys is null
+     */
+    long worstCase(int guess, int[] keys, long bound) {
+        Objects.requireNonNull(keys);
+        return Partition.worstCase(keys.length, key -> feedback(guess, keys[key]), words[guess].size(), bound);
+    }
+}
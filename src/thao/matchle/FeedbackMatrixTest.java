@@ -0,0 +1,145 @@
+package thao.matchle;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class FeedbackMatrixTest {
+    private static final Corpus TEST_CORPUS = Corpus.Builder.empty(5)
+            .add(NGram.from("apple"))
+            .add(NGram.from("grape"))
+            .add(NGram.from("peach"))
+            .add(NGram.from("berry"))
+            .add(NGram.from("melon"))
+            .build();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void unregister() {
+        FeedbackMatrix.unregisterAll();
+    }
+
+    private static void assertAgreesWithMatcher(FeedbackMatrix matrix) {
+        assertEquals(TEST_CORPUS.size(), matrix.size());
+        for (int guess = 0; guess < matrix.size(); guess++) {
+            for (int key = 0; key < matrix.size(); key++) {
+                assertEquals(NGramMatcher.feedback(matrix.get(key), matrix.get(guess)), matrix.feedback(guess, key));
+            }
+        }
+    }
+
+    @Test
+    public void testCompute() {
+        assertAgreesWithMatcher(FeedbackMatrix.compute(TEST_CORPUS));
+    }
+
+    @Test
+    public void testComputeWideEntries() {
+        Corpus corpus = Corpus.Builder.empty(7)
+                .add(NGram.from("abcdefg"))
+                .add(NGram.from("gfedcba"))
+                .add(NGram.from("zzzzzzz"))
+                .build();
+        FeedbackMatrix matrix = FeedbackMatrix.compute(corpus);
+        int guess = matrix.indexOf(NGram.from("zzzzzzz"));
+        int key = matrix.indexOf(NGram.from("abcdefg"));
+        assertEquals(FeedbackCode.count(7) - 1, matrix.feedback(guess, key));
+    }
+
+    @Test
+    public void testLoadCachesFile() throws IOException {
+        Path directory = folder.getRoot().toPath().resolve("cache");
+        FeedbackMatrix written = FeedbackMatrix.load(TEST_CORPUS, directory);
+        assertAgreesWithMatcher(written);
+
+        Path file = directory.resolve(Long.toHexString(TEST_CORPUS.fingerprint()) + FeedbackMatrix.EXTENSION);
+        assertTrue(Files.exists(file));
+        long modified = Files.getLastModifiedTime(file).toMillis();
+
+        assertAgreesWithMatcher(FeedbackMatrix.load(TEST_CORPUS, directory));
+        assertEquals(modified, Files.getLastModifiedTime(file).toMillis());
+    }
+
+    @Test
+    public void testLoadRebuildsUnreadableFile() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        Path file = directory.resolve(Long.toHexString(TEST_CORPUS.fingerprint()) + FeedbackMatrix.EXTENSION);
+        Files.write(file, new byte[] {1, 2, 3});
+        assertAgreesWithMatcher(FeedbackMatrix.load(TEST_CORPUS, directory));
+        assertTrue(Files.size(file) > 3);
+    }
+
+    @Test
+    public void testLoadRebuildsCorruptHeader() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        FeedbackMatrix.load(TEST_CORPUS, directory);
+        Path file = directory.resolve(Long.toHexString(TEST_CORPUS.fingerprint()) + FeedbackMatrix.EXTENSION);
+        byte[] valid = Files.readAllBytes(file);
+        // Word size past the longest feedback code, then a word count too large to map
+        for (int[] field : new int[][] {{2 * Integer.BYTES, 100}, {3 * Integer.BYTES, Integer.MAX_VALUE}}) {
+            ByteBuffer corrupt = ByteBuffer.wrap(valid.clone()).putInt(field[0], field[1]);
+            Files.write(file, corrupt.array());
+            assertAgreesWithMatcher(FeedbackMatrix.load(TEST_CORPUS, directory));
+            assertArrayEquals(valid, Files.readAllBytes(file));
+        }
+    }
+
+    @Test
+    public void testLookupRegistered() {
+        assertNull(FeedbackMatrix.lookup(TEST_CORPUS));
+        FeedbackMatrix matrix = FeedbackMatrix.compute(TEST_CORPUS);
+        FeedbackMatrix.register(TEST_CORPUS, matrix);
+        assertSame(matrix, FeedbackMatrix.lookup(TEST_CORPUS));
+        // Candidates narrowed down from the corpus
+        Corpus candidates = Corpus.Builder.empty(5).add(NGram.from("peach")).add(NGram.from("melon")).build();
+        assertSame(matrix, FeedbackMatrix.lookup(candidates));
+        assertNull(FeedbackMatrix.lookup(Corpus.Builder.empty(5).add(NGram.from("lemon")).build()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterUncoveredCorpus() {
+        FeedbackMatrix.register(Corpus.Builder.empty(5).add(NGram.from("lemon")).build(),
+                                FeedbackMatrix.compute(TEST_CORPUS));
+    }
+
+    @Test
+    public void testIndexOf() {
+        FeedbackMatrix matrix = FeedbackMatrix.compute(TEST_CORPUS);
+        assertEquals(NGram.from("peach"), matrix.get(matrix.indexOf(NGram.from("peach"))));
+        assertEquals(-1, matrix.indexOf(NGram.from("lemon")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIndicesOfUncoveredCorpus() {
+        FeedbackMatrix matrix = FeedbackMatrix.compute(TEST_CORPUS);
+        matrix.indicesOf(Corpus.Builder.empty(5).add(NGram.from("lemon")).build());
+    }
+
+    @Test
+    public void testStrategiesAgreeWithMatrix() {
+        FeedbackMatrix matrix = FeedbackMatrix.compute(TEST_CORPUS);
+        WorstCaseStrategy worstCase = WorstCaseStrategy.from(TEST_CORPUS);
+        WorstCaseStrategy worstCaseMatrix = WorstCaseStrategy.from(TEST_CORPUS, matrix);
+        AverageCaseStrategy averageCase = AverageCaseStrategy.from(TEST_CORPUS);
+        AverageCaseStrategy averageCaseMatrix = AverageCaseStrategy.from(TEST_CORPUS, matrix);
+        for (NGram guess : TEST_CORPUS) {
+            assertEquals(worstCase.scoreWorstCase(guess), worstCaseMatrix.scoreWorstCase(guess));
+            assertEquals(averageCase.scoreAverageCase(guess), averageCaseMatrix.scoreAverageCase(guess));
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testComputeWithNullCorpus() {
+        FeedbackMatrix.compute(null);
+    }
+}
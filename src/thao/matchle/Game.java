@@ -1,10 +1,10 @@
 package thao.matchle;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Game class represents the main game logic for the Matchle game.
@@ -15,6 +15,22 @@ public class Game {
     private NGram key;
     private int maxAttempts;
     private List<GuessResult> history;
+    /**
+     * Candidates still consistent with the history, created on the first hint.
+     */
+    private SolverSession solver;
+    /**
+     * Number of guesses in history already applied to the solver.
+     */
+    private int solved;
+    /**
+     * Position in the decision tree of the last tree hint, created on the first one.
+     */
+    private DecisionTree.Cursor cursor;
+    /**
+     * Number of guesses in history already followed by the cursor.
+     */
+    private int followed;
     
     /**
      * Main method to start the game with the default settings and corpus.
@@ -45,6 +61,7 @@ public class Game {
 
     /**
      * Factory method to create a new Game instance.
+     * The corpus is shared with the other games on the same word list and only loaded by the first one.
      * @param corpusFilePath the relative path to the corpus file
      * @param wordSize the size of the words in the corpus
      * @param maxAttempts the maximum attempts allowed
@@ -61,19 +78,37 @@ public class Game {
         if (maxAttempts <= 0) {
             throw new IllegalArgumentException("Max attempts must be greater than 0");
         }
-        Corpus corpus = corpusFromFile(corpusFilePath, wordSize);
+        Corpus corpus = CorpusRegistry.shared().get(corpusFilePath, wordSize);
         NGram key = keyGen(corpus);
         return new Game(corpus, key, wordSize, maxAttempts);
     }
 
     /**
-     * Loads the corpus from a file.
+     * Factory method to create a new Game instance on an already loaded corpus, which the game only reads.
+     * @param corpus the corpus to draw the key and accept the guesses from
+     * @param maxAttempts the maximum attempts allowed
+     * @return the new Game instance
+     * @throws NullPointerException if corpus is null
+     * @throws IllegalArgumentException if maxAttempts is less than or equal to 0
+     */
+    static Game from(Corpus corpus, int maxAttempts) {
+        Objects.requireNonNull(corpus);
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be greater than 0");
+        }
+        return new Game(corpus, keyGen(corpus), corpus.wordSize(), maxAttempts);
+    }
+
+    /**
+     * Loads the corpus from a file, memory-mapping it rather than reading it line by line.
+     * The file is either a text word list or a binary corpus file written by CorpusFile.
+     * The opening book stored next to the file, if any, is registered for the strategies to use.
      * @param corpusFilePath the path to the corpus file
      * @param wordSize the size of the words in the corpus
      * @return the loaded Corpus
      * @throws NullPointerException if corpusFilePath is null
      * @throws RuntimeException if there is an error loading the corpus from the file
-     * @throws IllegalArgumentException if wordSize is less than or equal to 0
+     * @throws IllegalArgumentException if wordSize is less than or equal to 0, or differs from the size of a corpus file
      */
     static Corpus corpusFromFile (String corpusFilePath, int wordSize) {
         Objects.requireNonNull(corpusFilePath);
@@ -81,16 +116,42 @@ public class Game {
             throw new IllegalArgumentException("Word size must be greater than 0");
         }
 
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
         try {
-            List<String> words = Files.lines(Paths.get(corpusFilePath))
-                                      .map(String::trim)
-                                      .filter(word -> word.length() == wordSize)
-                                      .collect(Collectors.toList());
-
-            Corpus.Builder builder = Corpus.Builder.empty(wordSize);
-            words.forEach(word -> builder.add(NGram.from(word)));
+            Path file = Paths.get(corpusFilePath);
+            Corpus corpus = CorpusFile.isCorpusFile(file) ? CorpusFile.read(file) : CorpusLoader.load(file, wordSize);
+            if (corpus.wordSize() != wordSize) {
+                throw new IllegalArgumentException("Corpus file holds words of size " + corpus.wordSize());
+            }
+            OpeningBook.registerBeside(file);
+            if (Metrics.ENABLED) {
+                Metrics.CORPUS_LOADS.recordSince(start);
+            }
+            return corpus;
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading corpus from file: " + corpusFilePath, e);
+        }
+    }
 
-            return builder.build();
+    /**
+     * Loads the words of every size from a file at once.
+     * The opening book stored next to the file, if any, is registered for the strategies to use.
+     * @param corpusFilePath the path to the corpus file
+     * @return the loaded Lexicon
+     * @throws NullPointerException if corpusFilePath is null
+     * @throws RuntimeException if there is an error loading the lexicon from the file
+     */
+    static Lexicon lexiconFromFile(String corpusFilePath) {
+        Objects.requireNonNull(corpusFilePath);
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        try {
+            Path file = Paths.get(corpusFilePath);
+            Lexicon lexicon = Lexicon.load(file);
+            OpeningBook.registerBeside(file);
+            if (Metrics.ENABLED) {
+                Metrics.CORPUS_LOADS.recordSince(start);
+            }
+            return lexicon;
         } catch (IOException e) {
             throw new RuntimeException("Error loading corpus from file: " + corpusFilePath, e);
         }
@@ -108,10 +169,8 @@ public class Game {
         if (corpus.isEmpty()) {
             throw new IllegalArgumentException("Corpus is empty");
         }
-        // Key is picked arbitrarily
-        Random random = new Random();
-        List<NGram> ngrams = new ArrayList<>(corpus.corpus());
-        return ngrams.get(random.nextInt(ngrams.size()));
+        // Key is picked arbitrarily, by id so that the corpus is not copied
+        return corpus.get(ThreadLocalRandom.current().nextInt(corpus.size()));
     }
 
     /**
@@ -223,6 +282,46 @@ public class Game {
         return key;
     }
 
+    /**
+     * Get the best guess according to the Worst Case Strategy among the keys consistent with the history.
+     * Only the guesses made since the previous hint are used to narrow the candidates.
+     * @return the NGram representing the guess
+     * @throws IllegalStateException if no key in the corpus is consistent with the history
+     */
+    NGram hint() {
+        assert history != null;
+        if (solver == null) {
+            solver = SolverSession.from(corpus, WorstCaseStrategy::from);
+        }
+        for (; solved < history.size(); solved++) {
+            solver.update(history.get(solved));
+        }
+        return solver.guess();
+    }
+
+    /**
+     * Get the next guess of a prebuilt decision tree, following the tree along the history.
+     * Only the guesses made since the previous hint of the same tree are followed.
+     * @param tree the decision tree built over the corpus of this game
+     * @return the NGram representing the guess
+     * @throws NullPointerException if tree is null
+     * @throws IllegalArgumentException if the tree was built over another corpus or the history strays from the tree
+     */
+    NGram hint(DecisionTree tree) {
+        Objects.requireNonNull(tree);
+        if (cursor == null || !cursor.walks(tree)) {
+            if (tree.fingerprint() != corpus.fingerprint()) {
+                throw new IllegalArgumentException("Decision tree was built over another corpus");
+            }
+            cursor = tree.cursor();
+            followed = 0;
+        }
+        for (; followed < history.size(); followed++) {
+            cursor.advance(history.get(followed));
+        }
+        return cursor.guess();
+    }
+
     // /**
     //  * Get the best guess according to the Worst Case Strategy.
     //  * @return the NGram representing the guess
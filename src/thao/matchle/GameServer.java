@@ -0,0 +1,262 @@
+package thao.matchle;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * GameServer class hosts many simultaneous games over TCP on the loopback interface.
+ * Every connection is served on its own virtual thread, so tens of thousands of idle players only cost
+ * their game state, and every game shares the same read-only corpus and the tables cached on it.
+ * <p>
+ * The protocol is line based. On connection the server starts a game and sends {@code READY wordSize maxAttempts},
+ * then answers each command with one line:
+ * <ul>
+ * <li>{@code GUESS word}: {@code FEEDBACK marks attemptsLeft}, {@code WIN attemptsUsed} or {@code LOSE marks key},
+ * where marks holds one letter per position, E for an exact match, P for a partial match and N for no match,
+ * or {@code INVALID reason} if the guess is rejected</li>
+ * <li>{@code HINT}: {@code HINT word}, the best guess among the keys consistent with the game so far</li>
+ * <li>{@code NEW}: starts a new game and answers {@code READY wordSize maxAttempts}</li>
+ * <li>{@code QUIT}: answers {@code BYE} and closes the connection</li>
+ * </ul>
+ * Anything else is answered with {@code ERROR reason}.
+ */
+public final class GameServer implements AutoCloseable {
+    /**
+     * Logger object to log messages.
+     */
+    private static final Logger logger = Logger.getLogger(GameServer.class.getName());
+    /**
+     * Time a connection may stay silent before it is closed.
+     */
+    static final int IDLE_TIMEOUT_MILLIS = 10 * 60 * 1000;
+    /**
+     * Connections waiting to be accepted. Bursts of players beyond it are left hanging by the kernel.
+     */
+    private static final int BACKLOG = 4096;
+
+    private final Corpus corpus;
+    private final int maxAttempts;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+
+    private GameServer(Corpus corpus, int maxAttempts, ServerSocket serverSocket) {
+        assert corpus != null;
+        assert maxAttempts > 0;
+        assert serverSocket != null;
+        this.corpus = corpus;
+        this.maxAttempts = maxAttempts;
+        this.serverSocket = serverSocket;
+        this.acceptor = Thread.ofVirtual().name("matchle-acceptor").unstarted(this::accept);
+    }
+
+    /**
+     * Starts a server on the loopback interface.
+     * @param port the port to listen on, or 0 to pick a free port
+     * @param corpus the corpus every game draws its key from
+     * @param maxAttempts the maximum attempts allowed in each game
+     * @return the running GameServer
+     * @throws NullPointerException if corpus is null
+     * @throws IllegalArgumentException if maxAttempts is less than or equal to 0 or port is out of range
+     * @throws IOException if the port can not be bound
+     */
+    public static GameServer start(int port, Corpus corpus, int maxAttempts) throws IOException {
+        Objects.requireNonNull(corpus);
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be greater than 0");
+        }
+        GameServer server = new GameServer(corpus, maxAttempts,
+                                           new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress()));
+        server.acceptor.start();
+        return server;
+    }
+
+    /**
+     * Getter for the port the server listens on.
+     * @return the local port
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Number of connections currently open.
+     * @return the number of open connections
+     */
+    public int connections() {
+        return sockets.size();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sockets.add(socket);
+                // close may have gone through the sockets before this one was added
+                if (serverSocket.isClosed()) {
+                    discard(socket);
+                    return;
+                }
+                connections.execute(() -> serve(socket));
+            } catch (RejectedExecutionException e) {
+                // Accepted while closing, the socket is already closed by close
+                return;
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.log(Level.WARNING, "Failed to accept a connection", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays games with one client until it quits, goes silent or disconnects.
+     */
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setSoTimeout(IDLE_TIMEOUT_MILLIS);
+            Game game = Game.from(corpus, maxAttempts);
+            respond(out, ready());
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] command = line.trim().split("\\s+", 2);
+                switch (command[0].toUpperCase(Locale.ROOT)) {
+                    case "GUESS" -> respond(out, command.length < 2 ? "ERROR missing guess" : guess(game, command[1].trim()));
+                    case "HINT" -> respond(out, game.isOver() ? "ERROR game over" : "HINT " + game.hint());
+                    case "NEW" -> {
+                        game = Game.from(corpus, maxAttempts);
+                        respond(out, ready());
+                    }
+                    case "QUIT" -> {
+                        respond(out, "BYE");
+                        return;
+                    }
+                    default -> respond(out, "ERROR unknown command");
+                }
+            }
+        } catch (SocketTimeoutException e) {
+            // Idle client, the connection is closed
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                logger.log(Level.FINE, "Connection closed by an I/O error", e);
+            }
+        } finally {
+            sockets.remove(socket);
+        }
+    }
+
+    private String ready() {
+        return "READY " + corpus.wordSize() + " " + maxAttempts;
+    }
+
+    private static void respond(BufferedWriter out, String response) throws IOException {
+        out.write(response);
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Plays a guess, checking it here so that invalid guesses are answered instead of printed.
+     */
+    private String guess(Game game, String word) {
+        if (game.isOver()) {
+            return "ERROR game over";
+        }
+        if (word.length() != corpus.wordSize()) {
+            return "INVALID guess must have " + corpus.wordSize() + " letters";
+        }
+        if (corpus.idOf(word) < 0) {
+            return "INVALID guess not in corpus";
+        }
+        game.makeGuess(word);
+        GuessResult result = game.getHistory().get(game.getHistory().size() - 1);
+        if (game.isWin()) {
+            return "WIN " + game.getHistory().size();
+        }
+        String marks = marks(result);
+        if (game.isOver()) {
+            return "LOSE " + marks + " " + game.getKey();
+        }
+        return "FEEDBACK " + marks + " " + (maxAttempts - game.getHistory().size());
+    }
+
+    /**
+     * Writes the match type of every letter of a result as E, P or N.
+     * @param result the result of a guess
+     * @return one mark per letter of the guess
+     */
+    static String marks(GuessResult result) {
+        StringBuilder sb = new StringBuilder(result.getGuess().size());
+        for (int i = 0; i < result.getGuess().size(); i++) {
+            sb.append(switch (result.getMatchType(i)) {
+                case EXACT -> 'E';
+                case PARTIAL -> 'P';
+                case NONE -> 'N';
+            });
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close the server socket", e);
+        }
+        for (Socket socket : sockets) {
+            discard(socket);
+        }
+        connections.close();
+    }
+
+    private void discard(Socket socket) {
+        sockets.remove(socket);
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already broken, nothing left to release
+        }
+    }
+
+    /**
+     * Serves games on a word list until the process is stopped.
+     * Usage: GameServer port wordListPath wordSize maxAttempts
+     * @param args command line arguments
+     * @throws IOException if the port can not be bound
+     * @throws InterruptedException if the server thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 4) {
+            System.out.println("Usage: GameServer port wordListPath wordSize maxAttempts");
+            return;
+        }
+        Corpus corpus = CorpusRegistry.shared().get(args[1], Integer.parseInt(args[2]));
+        GameServer server = start(Integer.parseInt(args[0]), corpus, Integer.parseInt(args[3]));
+        System.out.println("Serving " + corpus.size() + " words on port " + server.port());
+        server.acceptor.join();
+    }
+}
@@ -0,0 +1,143 @@
+package thao.matchle;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import thao.matchle.GuessResult.MatchType;
+
+public class GameServerTest {
+    private static final Corpus TEST_CORPUS = Corpus.Builder.empty(5)
+            .add(NGram.from("apple"))
+            .add(NGram.from("grape"))
+            .add(NGram.from("peach"))
+            .add(NGram.from("berry"))
+            .add(NGram.from("melon"))
+            .build();
+    private static GameServer server;
+
+    @BeforeClass
+    public static void startServer() throws IOException {
+        server = GameServer.start(0, TEST_CORPUS, 6);
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.close();
+    }
+
+    /**
+     * Client side of a connection.
+     */
+    private static final class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Client() throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.port());
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        }
+
+        String read() throws IOException {
+            return in.readLine();
+        }
+
+        String send(String command) throws IOException {
+            out.println(command);
+            return in.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /**
+     * Plays a game on a connection with the hints of the server until the game ends.
+     * @return the last response
+     */
+    private static String playWithHints(Client client) throws IOException {
+        String response;
+        do {
+            String hint = client.send("HINT");
+            assertTrue(hint, hint.startsWith("HINT "));
+            response = client.send("GUESS " + hint.substring("HINT ".length()));
+        } while (response.startsWith("FEEDBACK"));
+        return response;
+    }
+
+    @Test
+    public void testPlayWithHints() throws IOException {
+        try (Client client = new Client()) {
+            assertEquals("READY 5 6", client.read());
+            assertTrue(playWithHints(client).startsWith("WIN "));
+            assertEquals("ERROR game over", client.send("GUESS apple"));
+            assertEquals("READY 5 6", client.send("NEW"));
+            assertTrue(playWithHints(client).startsWith("WIN "));
+            assertEquals("BYE", client.send("QUIT"));
+            assertNull(client.read());
+        }
+    }
+
+    @Test
+    public void testInvalidCommands() throws IOException {
+        try (Client client = new Client()) {
+            client.read();
+            assertEquals("INVALID guess must have 5 letters", client.send("GUESS kiwi"));
+            assertEquals("INVALID guess not in corpus", client.send("GUESS lemon"));
+            assertEquals("ERROR missing guess", client.send("GUESS"));
+            assertEquals("ERROR unknown command", client.send("DANCE"));
+        }
+    }
+
+    @Test
+    public void testConcurrentSessions() throws Exception {
+        try (ExecutorService players = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                results.add(players.submit(() -> {
+                    try (Client client = new Client()) {
+                        client.read();
+                        return playWithHints(client);
+                    }
+                }));
+            }
+            for (Future<String> result : results) {
+                assertTrue(result.get().startsWith("WIN "));
+            }
+        }
+    }
+
+    @Test
+    public void testMarks() {
+        GuessResult result = GuessResult.of(NGram.from("abc"), Map.of(
+                new IndexedCharacter(0, 'a'), MatchType.EXACT,
+                new IndexedCharacter(1, 'b'), MatchType.PARTIAL,
+                new IndexedCharacter(2, 'c'), MatchType.NONE));
+        assertEquals("EPN", GameServer.marks(result));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStartWithInvalidAttempts() throws IOException {
+        GameServer.start(0, TEST_CORPUS, 0);
+    }
+}
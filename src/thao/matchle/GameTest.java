@@ -102,4 +102,15 @@ public class GameTest {
         Game game = Game.from("wordlist.txt", 5, 6);
         assertTrue(game.getCorpus().contains(game.getKey()));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testHintIsConsistentWithHistory() {
+        Game game = Game.from("wordlist.txt", 5, 6);
+        NGram hint = game.hint();
+        assertTrue(game.makeGuess(hint.toString()));
+        NGram next = game.hint();
+        GuessResult last = game.getHistory().get(0);
+        // the next hint could be the key, so it must produce the same feedback as the key did
+        assertEquals(last, NGramMatcher.of(next, hint).match());
+    }
+}
@@ -0,0 +1,269 @@
+package thao.matchle;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * GuessCache class remembers the best guesses of the strategies, so that games reaching the same candidates
+ * are answered at once instead of searching again. Strategies are deterministic, so a guess only depends on
+ * the strategy and the candidates, which are keyed by the fingerprint of the corpus of candidates.
+ * <p>
+ * The cache holds at most a fixed number of guesses and evicts the least recently used guesses (LRU) or the least
+ * frequently used guesses (LFU, ties broken by recency) to make room. Guesses live in a ConcurrentHashMap and every
+ * entry records its own uses and last use atomically, so lookups take no lock. Only an insertion overflowing the
+ * capacity takes the eviction lock, and it then ranks a snapshot of the entries and evicts a batch of a sixteenth of
+ * the capacity, so the ranking is paid once per batch of insertions. Guesses are searched outside of any lock,
+ * so threads missing the same key at once may both search, and the later result replaces an equal one.
+ * <p>
+ * The shared cache is off unless the JVM is started with {@code -Dmatchle.guessCache.size=N}, in which case
+ * it holds N guesses with LRU eviction, or LFU eviction with {@code -Dmatchle.guessCache.policy=LFU}.
+ */
+public final class GuessCache {
+    /**
+     * System property holding the capacity of the shared cache.
+     */
+    static final String SIZE_PROPERTY = "matchle.guessCache.size";
+    /**
+     * System property holding the eviction policy of the shared cache.
+     */
+    static final String POLICY_PROPERTY = "matchle.guessCache.policy";
+    /**
+     * Share of the capacity evicted at once, as a divisor.
+     */
+    private static final int BATCH_DIVISOR = 16;
+
+    private static final GuessCache shared = new GuessCache(Integer.getInteger(SIZE_PROPERTY, 0),
+            Policy.valueOf(System.getProperty(POLICY_PROPERTY, Policy.LRU.name()).toUpperCase(Locale.ROOT)));
+
+    /**
+     * Order in which guesses are evicted.
+     */
+    public enum Policy {
+        /**
+         * Evicts the guess used least recently.
+         */
+        LRU(Comparator.comparingLong(Sample::lastUse)),
+        /**
+         * Evicts the guess used the fewest times, the least recently used first among them.
+         */
+        LFU(Comparator.comparingLong(Sample::uses).thenComparingLong(Sample::lastUse));
+
+        private final Comparator<Sample> eviction;
+
+        Policy(Comparator<Sample> eviction) {
+            this.eviction = eviction;
+        }
+    }
+
+    /**
+     * Counts of the cache activity.
+     * @param hits the lookups answered by the cache
+     * @param misses the lookups that had to search for the guess
+     * @param evictions the guesses evicted to make room
+     * @param size the number of guesses held
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+        /**
+         * Share of lookups answered by the cache.
+         * @return the hit rate, or 0 if there was no lookup
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * Key of a guess.
+     * @param strategy the class of the strategy
+     * @param fingerprint the fingerprint of the corpus the strategy guesses over
+     */
+    private record Key(Class<? extends MatchingStrategy> strategy, long fingerprint) {
+    }
+
+    /**
+     * A cached guess with its use statistics, updated without locking.
+     */
+    private static final class Entry {
+        private final NGram guess;
+        private final AtomicLong uses = new AtomicLong(1);
+        private volatile long lastUse;
+
+        private Entry(NGram guess, long lastUse) {
+            this.guess = guess;
+            this.lastUse = lastUse;
+        }
+    }
+
+    /**
+     * Use statistics of an entry frozen for ranking, since the live ones may change while the entries are sorted.
+     * @param key the key of the entry
+     * @param entry the entry
+     * @param uses the number of uses of the entry
+     * @param lastUse the tick of the last use of the entry
+     */
+    private record Sample(Key key, Entry entry, long uses, long lastUse) {
+    }
+
+    private final int capacity;
+    private final Policy policy;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    /**
+     * Held while evicting, so that a single thread ranks the entries at a time.
+     */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    /**
+     * Logical clock, advanced by every use so that recency has no ties.
+     */
+    private final AtomicLong tick = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private GuessCache(int capacity, Policy policy) {
+        assert policy != null;
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative");
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * Getter for the cache shared by every strategy of the process.
+     * @return the shared GuessCache
+     */
+    public static GuessCache shared() {
+        return shared;
+    }
+
+    /**
+     * Creates a new, empty cache.
+     * @param capacity the maximum number of guesses held, 0 to hold none
+     * @param policy the order in which guesses are evicted
+     * @return a new GuessCache
+     * @throws NullPointerException if policy is null
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public static GuessCache of(int capacity, Policy policy) {
+        Objects.requireNonNull(policy);
+        return new GuessCache(capacity, policy);
+    }
+
+    /**
+     * Gets the guess of a strategy over a corpus, searching for it only if it is not cached.
+     * @param strategy the class of the strategy
+     * @param corpus the corpus the strategy guesses over
+     * @param search the search for the guess, run on a miss
+     * @return the guess of the strategy
+     * @throws NullPointerException if any argument is null, or the search returns null
+     */
+    NGram get(Class<? extends MatchingStrategy> strategy, Corpus corpus, Supplier<NGram> search) {
+        Objects.requireNonNull(strategy);
+        Objects.requireNonNull(corpus);
+        Objects.requireNonNull(search);
+        if (capacity == 0) {
+            return Objects.requireNonNull(search.get());
+        }
+        Key key = new Key(strategy, corpus.fingerprint());
+        Entry entry = entries.get(key);
+        // Guard against fingerprint collisions with a corpus of other words
+        if (entry != null && corpus.contains(entry.guess)) {
+            hits.increment();
+            entry.uses.incrementAndGet();
+            entry.lastUse = tick.incrementAndGet();
+            return entry.guess;
+        }
+        misses.increment();
+        NGram guess = Objects.requireNonNull(search.get());
+        entries.put(key, new Entry(guess, tick.incrementAndGet()));
+        if (entries.size() > capacity) {
+            evict();
+        }
+        return guess;
+    }
+
+    /**
+     * Evicts the entries ranked first by the policy, down to a batch below the capacity.
+     */
+    private void evict() {
+        evictionLock.lock();
+        try {
+            int size = entries.size();
+            if (size <= capacity) {
+                // Already evicted by another thread
+                return;
+            }
+            Sample[] samples = new Sample[size];
+            int count = 0;
+            for (Map.Entry<Key, Entry> entry : entries.entrySet()) {
+                if (count == samples.length) {
+                    break;
+                }
+                Entry value = entry.getValue();
+                samples[count++] = new Sample(entry.getKey(), value, value.uses.get(), value.lastUse);
+            }
+            Arrays.sort(samples, 0, count, policy.eviction);
+            int excess = entries.size() - (capacity - capacity / BATCH_DIVISOR);
+            for (int i = 0; i < count && excess > 0; i++) {
+                // The entry may have been replaced by a new search since the snapshot
+                if (entries.remove(samples[i].key(), samples[i].entry())) {
+                    evictions.increment();
+                    excess--;
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Getter for the counts of the cache activity.
+     * Counts updated concurrently with this call may or may not be included.
+     * @return the current Stats of the cache
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    /**
+     * Getter for the eviction policy.
+     * @return the order in which guesses are evicted
+     */
+    public Policy policy() {
+        return policy;
+    }
+
+    /**
+     * Getter for the capacity.
+     * @return the maximum number of guesses held
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Resets the counts, keeping the guesses.
+     */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    /**
+     * Drops every guess and resets the counts.
+     */
+    public void clear() {
+        entries.clear();
+        resetStats();
+    }
+}
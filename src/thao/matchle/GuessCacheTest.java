@@ -0,0 +1,207 @@
+package thao.matchle;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class GuessCacheTest {
+    private static Corpus corpus(String... words) {
+        Corpus.Builder builder = Corpus.Builder.empty(5);
+        for (String word : words) {
+            builder.add(NGram.from(word));
+        }
+        return builder.build();
+    }
+
+    private final Corpus first = corpus("crane", "slate", "trace");
+    private final Corpus second = corpus("plant", "brick");
+    private final Corpus third = corpus("stare", "crate", "grape");
+
+    /**
+     * A search returning the first word of the corpus and counting its runs.
+     */
+    private static Supplier<NGram> counting(Corpus corpus, AtomicInteger runs) {
+        return () -> {
+            runs.incrementAndGet();
+            return corpus.get(0);
+        };
+    }
+
+    @Test
+    public void testHitAfterMiss() {
+        GuessCache cache = GuessCache.of(10, GuessCache.Policy.LRU);
+        AtomicInteger runs = new AtomicInteger();
+        assertEquals(NGram.from("crane"), cache.get(WorstCaseStrategy.class, first, counting(first, runs)));
+        assertEquals(NGram.from("crane"), cache.get(WorstCaseStrategy.class, first, counting(first, runs)));
+        assertEquals(1, runs.get());
+        GuessCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.size());
+        assertEquals(0.5, stats.hitRate(), 0);
+    }
+
+    @Test
+    public void testEqualCorporaShareGuesses() {
+        GuessCache cache = GuessCache.of(10, GuessCache.Policy.LRU);
+        AtomicInteger runs = new AtomicInteger();
+        cache.get(WorstCaseStrategy.class, first, counting(first, runs));
+        // Same words in another order
+        Corpus reordered = corpus("trace", "slate", "crane");
+        assertEquals(NGram.from("crane"), cache.get(WorstCaseStrategy.class, reordered, counting(reordered, runs)));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testStrategiesAreKeptApart() {
+        GuessCache cache = GuessCache.of(10, GuessCache.Policy.LRU);
+        AtomicInteger runs = new AtomicInteger();
+        cache.get(WorstCaseStrategy.class, first, counting(first, runs));
+        cache.get(AverageCaseStrategy.class, first, counting(first, runs));
+        assertEquals(2, runs.get());
+        assertEquals(2, cache.stats().size());
+    }
+
+    @Test
+    public void testLruEviction() {
+        GuessCache cache = GuessCache.of(2, GuessCache.Policy.LRU);
+        AtomicInteger runs = new AtomicInteger();
+        cache.get(WorstCaseStrategy.class, first, counting(first, runs));
+        cache.get(WorstCaseStrategy.class, second, counting(second, runs));
+        // Use first again, so second is the least recently used
+        cache.get(WorstCaseStrategy.class, first, counting(first, runs));
+        cache.get(WorstCaseStrategy.class, third, counting(third, runs));
+        assertEquals(3, runs.get());
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(2, cache.stats().size());
+
+        cache.get(WorstCaseStrategy.class, first, counting(first, runs));
+        assertEquals(3, runs.get());
+        cache.get(WorstCaseStrategy.class, second, counting(second, runs));
+        assertEquals(4, runs.get());
+    }
+
+    @Test
+    public void testLfuEviction() {
+        GuessCache cache = GuessCache.of(2, GuessCache.Policy.LFU);
+        AtomicInteger runs = new AtomicInteger();
+        cache.get(WorstCaseStrategy.class, first, counting(first, runs));
+        cache.get(WorstCaseStrategy.class, first, counting(first, runs));
+        cache.get(WorstCaseStrategy.class, first, counting(first, runs));
+        cache.get(WorstCaseStrategy.class, second, counting(second, runs));
+        // first is used more often than second, though less recently
+        cache.get(WorstCaseStrategy.class, third, counting(third, runs));
+        assertEquals(3, runs.get());
+
+        cache.get(WorstCaseStrategy.class, first, counting(first, runs));
+        assertEquals(3, runs.get());
+        cache.get(WorstCaseStrategy.class, second, counting(second, runs));
+        assertEquals(4, runs.get());
+    }
+
+    @Test
+    public void testBatchEviction() {
+        GuessCache cache = GuessCache.of(32, GuessCache.Policy.LRU);
+        AtomicInteger runs = new AtomicInteger();
+        List<Corpus> corpora = IntStream.range(0, 33)
+                                        .mapToObj(i -> corpus(String.format("w%04d", i)))
+                                        .toList();
+        for (Corpus corpus : corpora) {
+            cache.get(WorstCaseStrategy.class, corpus, counting(corpus, runs));
+        }
+        // Overflowing the capacity evicts a sixteenth of it at once, the least recently used first
+        assertEquals(3, cache.stats().evictions());
+        assertEquals(30, cache.stats().size());
+        cache.get(WorstCaseStrategy.class, corpora.get(3), counting(corpora.get(3), runs));
+        assertEquals(33, runs.get());
+        cache.get(WorstCaseStrategy.class, corpora.get(2), counting(corpora.get(2), runs));
+        assertEquals(34, runs.get());
+    }
+
+    @Test
+    public void testZeroCapacity() {
+        GuessCache cache = GuessCache.of(0, GuessCache.Policy.LRU);
+        AtomicInteger runs = new AtomicInteger();
+        cache.get(WorstCaseStrategy.class, first, counting(first, runs));
+        cache.get(WorstCaseStrategy.class, first, counting(first, runs));
+        assertEquals(2, runs.get());
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    public void testCollisionGuard() {
+        GuessCache cache = GuessCache.of(10, GuessCache.Policy.LRU);
+        cache.get(WorstCaseStrategy.class, first, () -> NGram.from("plant"));
+        // A cached guess outside of the corpus is not trusted
+        AtomicInteger runs = new AtomicInteger();
+        assertEquals(NGram.from("crane"), cache.get(WorstCaseStrategy.class, first, counting(first, runs)));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testClear() {
+        GuessCache cache = GuessCache.of(10, GuessCache.Policy.LFU);
+        AtomicInteger runs = new AtomicInteger();
+        cache.get(WorstCaseStrategy.class, first, counting(first, runs));
+        cache.clear();
+        assertEquals(new GuessCache.Stats(0, 0, 0, 0), cache.stats());
+        cache.get(WorstCaseStrategy.class, first, counting(first, runs));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void testResetStats() {
+        GuessCache cache = GuessCache.of(10, GuessCache.Policy.LRU);
+        AtomicInteger runs = new AtomicInteger();
+        cache.get(WorstCaseStrategy.class, first, counting(first, runs));
+        cache.resetStats();
+        assertEquals(new GuessCache.Stats(0, 0, 0, 1), cache.stats());
+        cache.get(WorstCaseStrategy.class, first, counting(first, runs));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testConcurrentBound() {
+        GuessCache cache = GuessCache.of(2, GuessCache.Policy.LRU);
+        List<Corpus> corpora = List.of(first, second, third);
+        List.of(0, 1, 2, 3, 4, 5, 6, 7).parallelStream().forEach(t -> {
+            for (int i = 0; i < 1000; i++) {
+                Corpus corpus = corpora.get((t + i) % corpora.size());
+                assertEquals(corpus.get(0), cache.get(WorstCaseStrategy.class, corpus, () -> corpus.get(0)));
+            }
+        });
+        GuessCache.Stats stats = cache.stats();
+        assertEquals(8000, stats.hits() + stats.misses());
+        assertTrue(stats.size() <= 2);
+    }
+
+    @Test
+    public void testStrategiesUseSharedCache() {
+        Assume.assumeTrue(GuessCache.shared().capacity() > 0);
+        Corpus corpus = corpus("crane", "slate", "trace", "plant", "brick", "stare");
+        NGram guess = WorstCaseStrategy.from(corpus).guess();
+        long hits = GuessCache.shared().stats().hits();
+        assertEquals(guess, WorstCaseStrategy.from(corpus).guess());
+        assertEquals(hits + 1, GuessCache.shared().stats().hits());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeCapacity() {
+        GuessCache.of(-1, GuessCache.Policy.LRU);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullPolicy() {
+        GuessCache.of(1, null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullSearchResult() {
+        GuessCache.of(1, GuessCache.Policy.LRU).get(WorstCaseStrategy.class, first, () -> null);
+    }
+}
@@ -112,6 +112,24 @@ class GuessResult {
         return sb.toString();
     }
 
+    /**
+     * @param o the other GuessResult to compare with.
+     * @return true if both results are for the same guess and carry the same match types, false otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        GuessResult other = (GuessResult) o;
+        return this.guess.equals(other.guess) && this.resultMap.equals(other.resultMap);
+    }
+
+    // Equal results must hash alike so that results can be used to bucket keys.
+    @Override
+    public int hashCode() {
+        return Objects.hash(guess, resultMap);
+    }
+
     /**
      * Merges this GuessResult with another GuessResult.
      * @param other the other GuessResult to merge with
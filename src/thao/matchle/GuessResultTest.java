@@ -131,4 +131,15 @@ public class GuessResultTest {
 
         guessResult1.merge(guessResult2);
     }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        GuessResult result1 = NGramMatcher.of(NGram.from("grape"), NGram.from("apple")).match();
+        GuessResult result2 = NGramMatcher.of(NGram.from("grape"), NGram.from("apple")).match();
+        GuessResult result3 = NGramMatcher.of(NGram.from("berry"), NGram.from("apple")).match();
+
+        assertEquals(result1, result2);
+        assertEquals(result1.hashCode(), result2.hashCode());
+        assertTrue(!result1.equals(result3));
+    }
 }
@@ -0,0 +1,120 @@
+package thao.matchle;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Lexicon class holds every word of a word list, whatever its size, and serves a Corpus per word size.
+ * The words are loaded once into a single WordStore grouped by size, and the corpus of each size is a view
+ * of its range of the store, so games of every size share one load and one copy of the words.
+ */
+public final class Lexicon {
+    /**
+     * Corpus of every word size present, by word size.
+     */
+    private final SortedMap<Integer, Corpus> corpora;
+    /**
+     * Total number of words.
+     */
+    private final int size;
+
+    private Lexicon(SortedMap<Integer, Corpus> corpora, int size) {
+        assert corpora != null;
+        this.corpora = corpora;
+        this.size = size;
+    }
+
+    /**
+     * Creates a lexicon of distinct words of any sizes.
+     * The words of each size keep their relative order.
+     * @param words the distinct words
+     * @return a new Lexicon holding the words
+     * @throws NullPointerException if words or any of its elements is null
+     * @throws IllegalArgumentException if words holds duplicates
+     */
+    static Lexicon of(NGram[] words) {
+        Objects.requireNonNull(words);
+        // Group the words by size with a stable counting sort
+        SortedMap<Integer, Integer> starts = new TreeMap<>();
+        for (NGram word : words) {
+            starts.merge(word.size(), 1, Integer::sum);
+        }
+        int start = 0;
+        for (Map.Entry<Integer, Integer> entry : starts.entrySet()) {
+            int count = entry.getValue();
+            entry.setValue(start);
+            start += count;
+        }
+        NGram[] grouped = new NGram[words.length];
+        Map<Integer, Integer> next = new TreeMap<>(starts);
+        for (NGram word : words) {
+            grouped[next.merge(word.size(), 1, Integer::sum) - 1] = word;
+        }
+
+        WordStore store = WordStore.of(grouped);
+        SortedMap<Integer, Corpus> corpora = new TreeMap<>();
+        for (Map.Entry<Integer, Integer> entry : starts.entrySet()) {
+            corpora.put(entry.getKey(), Corpus.view(store, entry.getValue(), next.get(entry.getKey())));
+        }
+        return new Lexicon(Collections.unmodifiableSortedMap(corpora), words.length);
+    }
+
+    /**
+     * Loads every word of a word list at once, memory-mapping the file.
+     * A binary corpus file written by CorpusFile holds words of a single size.
+     * @param file the word list, a text file encoded in UTF-8 or a corpus file
+     * @return the lexicon of the word list
+     * @throws NullPointerException if file is null
+     * @throws IOException if the file can not be read or is not valid
+     */
+    public static Lexicon load(Path file) throws IOException {
+        Objects.requireNonNull(file);
+        if (CorpusFile.isCorpusFile(file)) {
+            Corpus corpus = CorpusFile.read(file);
+            return new Lexicon(Collections.unmodifiableSortedMap(new TreeMap<>(Map.of(corpus.wordSize(), corpus))),
+                               corpus.size());
+        }
+        return of(CorpusLoader.words(file, CorpusLoader.ANY_SIZE));
+    }
+
+    /**
+     * Gets the corpus of the words of a size.
+     * @param wordSize the size of the words
+     * @return the Corpus of the words of the size, sharing the storage of the lexicon
+     * @throws IllegalArgumentException if wordSize is less than or equal to 0
+     * @throws IllegalStateException if the lexicon has no word of the size
+     */
+    public Corpus corpus(int wordSize) {
+        if (wordSize <= 0) {
+            throw new IllegalArgumentException("Word size must be greater than 0");
+        }
+        Corpus corpus = corpora.get(wordSize);
+        if (corpus == null) {
+            throw new IllegalStateException("No word of size " + wordSize + " in the lexicon");
+        }
+        return corpus;
+    }
+
+    /**
+     * Getter for the word sizes present in the lexicon.
+     * @return the sorted sizes of the words
+     */
+    public SortedSet<Integer> wordSizes() {
+        return Collections.unmodifiableSortedSet(new TreeSet<>(corpora.keySet()));
+    }
+
+    /**
+     * Getter for the number of words of every size in the lexicon.
+     * @return the total number of words
+     */
+    public int size() {
+        return size;
+    }
+}
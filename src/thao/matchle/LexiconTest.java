@@ -0,0 +1,70 @@
+package thao.matchle;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class LexiconTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLoadGroupsWordsBySize() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, "kiwi\napple\n fig \ngrape\nlime\napple\nbanana\n");
+        Lexicon lexicon = Lexicon.load(file);
+        assertEquals(List.of(3, 4, 5, 6), List.copyOf(lexicon.wordSizes()));
+        assertEquals(6, lexicon.size());
+        assertEquals(List.of(NGram.from("kiwi"), NGram.from("lime")), lexicon.corpus(4).stream().toList());
+        assertEquals(List.of(NGram.from("apple"), NGram.from("grape")), lexicon.corpus(5).stream().toList());
+        assertTrue(lexicon.corpus(3).contains(NGram.from("fig")));
+        // Words of other sizes share the store but not the corpus
+        assertFalse(lexicon.corpus(5).contains(NGram.from("kiwi")));
+        assertEquals(4, lexicon.corpus(4).wordSize());
+    }
+
+    @Test
+    public void testCorporaMatchSingleSizeLoads() throws IOException {
+        Lexicon lexicon = Lexicon.load(Path.of("wordlist.txt"));
+        for (int wordSize : lexicon.wordSizes()) {
+            Corpus corpus = Game.corpusFromFile("wordlist.txt", wordSize);
+            assertEquals(corpus.corpus(), lexicon.corpus(wordSize).corpus());
+            assertEquals(corpus.fingerprint(), lexicon.corpus(wordSize).fingerprint());
+        }
+    }
+
+    @Test
+    public void testLoadCorpusFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("words" + CorpusFile.EXTENSION);
+        CorpusFile.write(Game.corpusFromFile("wordlist.txt", 5), file, false);
+        Lexicon lexicon = Lexicon.load(file);
+        assertEquals(List.of(5), List.copyOf(lexicon.wordSizes()));
+        assertEquals(lexicon.size(), lexicon.corpus(5).size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCorpusOfMissingSize() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, "apple\n");
+        Lexicon.load(file).corpus(4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCorpusOfInvalidSize() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, "apple\n");
+        Lexicon.load(file).corpus(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfDuplicates() {
+        Lexicon.of(new NGram[] {NGram.from("apple"), NGram.from("kiwi"), NGram.from("apple")});
+    }
+}
@@ -1,10 +1,8 @@
 package thao.matchle;
 
-import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
 import java.util.function.ToLongFunction;
-import java.util.stream.Collectors;
 import java.util.stream.LongStream;
 
 /**
@@ -20,6 +18,7 @@ public interface MatchingStrategy {
 
     /**
      * Calculates the size of the corpus that is consistent with the given feedback (GuessResult).
+     * The consistent keys are counted with bitset operations over the positional letter index of the corpus.
      * 
      * @param result The feedback result to filter the corpus against.
      * @param corpus The corpus of NGrams to filter.
@@ -28,14 +27,14 @@ public interface MatchingStrategy {
     default long size(GuessResult result, Corpus corpus) {
         Objects.requireNonNull(result);
         Objects.requireNonNull(corpus);
-        List<NGram> matchResult = corpus.stream()
-                                .filter(ngram -> {
-                                    NGramMatcher matcher = NGramMatcher.of(ngram, result.getGuess());
-                                    GuessResult match = matcher.match();
-                                    return match.equals(result);
-                                })
-                                .collect(Collectors.toList());
-        return (long) matchResult.size();
+        if (Metrics.ENABLED) {
+            Metrics.SIZES.increment();
+        }
+        if (!FeedbackCode.isComplete(result)) {
+            // the matcher always reports every letter, so no key can produce a partial result
+            return 0;
+        }
+        return corpus.index().count(result);
     }
 
     /**
@@ -58,6 +57,8 @@ public interface MatchingStrategy {
 
     /**
      * Calculates the score of a guess in a certain corpus using an aggregator function.
+     * The keys are partitioned by feedback in a single pass, so each key score is read off
+     * the size of its bucket instead of re-matching the whole corpus.
      * 
      * @param guess The NGram representing the guess.
      * @param aggregator The function to aggregate the scores.
@@ -68,12 +69,13 @@ public interface MatchingStrategy {
         assert guess != null;
         assert aggregator != null;
 
-        return aggregator.apply(corpus.stream()
-                         .mapToLong(key -> score(key, guess, corpus)));
+        return aggregator.apply(Partition.of(guess, corpus).keyScores());
     }
 
     /**
      * Finds the best guess based on a given criterion function.
+     * Candidates are scored once each, in parallel, and ties go to the alphabetically smallest NGram
+     * so that the best guess does not depend on the iteration order of the corpus or the number of threads.
      * 
      * @param criterion The function to evaluate the score of each NGram.
      * @param corpus The corpus of NGrams to filter.
@@ -81,14 +83,6 @@ public interface MatchingStrategy {
      */
     default NGram bestGuess(ToLongFunction<NGram> criterion, Corpus corpus) {
         Objects.requireNonNull(criterion);
-        long minScore = corpus.stream()
-                                .mapToLong(key -> criterion.applyAsLong(key))
-                                .min().getAsLong();
-        
-        // return an ngram with minScore                      
-        return corpus.stream()
-                        .filter(key -> criterion.applyAsLong(key) == minScore)
-                        .collect(Collectors.toList())
-                        .get(0);
+        return BestGuessSearch.minimize(corpus.stream().toArray(NGram[]::new), criterion::applyAsLong);
     }
 }
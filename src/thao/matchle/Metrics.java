@@ -0,0 +1,311 @@
+package thao.matchle;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Metrics class counts and times the hot paths of the game: matches, corpus loads, size invocations,
+ * candidates left after each move and strategy guesses.
+ * <p>
+ * Metrics are off unless the JVM is started with {@code -Dmatchle.metrics=true}. The flag is a static final
+ * constant, so with metrics off the JIT drops every guarded call site and the hot paths cost nothing.
+ * With metrics on, the values are published as the MXBean {@code thao.matchle:type=Metrics}, for JConsole or
+ * any JMX client, and {@code -Dmatchle.metrics.dumpSeconds=N} also logs them every N seconds.
+ */
+public final class Metrics implements MetricsMXBean {
+    /**
+     * Logger object to log messages.
+     */
+    private static final Logger logger = Logger.getLogger(Metrics.class.getName());
+    /**
+     * System property turning the metrics on.
+     */
+    static final String ENABLED_PROPERTY = "matchle.metrics";
+    /**
+     * System property holding the period of the log dump, in seconds.
+     */
+    static final String DUMP_PROPERTY = "matchle.metrics.dumpSeconds";
+    /**
+     * Name the metrics are published under.
+     */
+    static final String OBJECT_NAME = "thao.matchle:type=Metrics";
+    /**
+     * Whether call sites record metrics. Every call site checks it before recording.
+     */
+    static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    /**
+     * Calls to NGramMatcher.match, building a GuessResult.
+     */
+    static final Counter MATCHES = new Counter();
+    /**
+     * Calls to NGramMatcher.feedback and words matched by ColumnarCorpus, building a FeedbackCode.
+     */
+    static final Counter FEEDBACKS = new Counter();
+    /**
+     * Calls to MatchingStrategy.size.
+     */
+    static final Counter SIZES = new Counter();
+    /**
+     * Time to load a corpus or lexicon from a file, in nanoseconds.
+     */
+    static final Statistic CORPUS_LOADS = new Statistic();
+    /**
+     * Candidates left after each move of a solver session.
+     */
+    static final Statistic CANDIDATES = new Statistic();
+    /**
+     * Time a strategy takes to pick a guess in a solver session, in nanoseconds.
+     */
+    static final Statistic GUESSES = new Statistic();
+
+    static {
+        if (ENABLED) {
+            register(ManagementFactory.getPlatformMBeanServer());
+            long period = Long.getLong(DUMP_PROPERTY, 0);
+            if (period > 0) {
+                ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+                    Thread thread = new Thread(task, "matchle-metrics");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                dumper.scheduleAtFixedRate(() -> logger.info(dump()), period, period, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Number of events, safe to increment from any thread.
+     */
+    static final class Counter {
+        private final LongAdder count = new LongAdder();
+
+        /**
+         * Counts one event.
+         */
+        void increment() {
+            count.increment();
+        }
+
+        /**
+         * Counts many events at once.
+         * @param events the number of events
+         */
+        void add(long events) {
+            count.add(events);
+        }
+
+        /**
+         * Getter for the number of events.
+         * @return the number of events counted since the last reset
+         */
+        long count() {
+            return count.sum();
+        }
+
+        private void reset() {
+            count.reset();
+        }
+    }
+
+    /**
+     * Number, total and maximum of recorded values, safe to record from any thread.
+     */
+    static final class Statistic {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        /**
+         * Records a value.
+         * @param value the value to record, not negative
+         */
+        void record(long value) {
+            count.increment();
+            total.add(value);
+            max.accumulate(value);
+        }
+
+        /**
+         * Records the time elapsed since a start time.
+         * @param start the start time, from System.nanoTime
+         */
+        void recordSince(long start) {
+            record(System.nanoTime() - start);
+        }
+
+        /**
+         * Getter for the number of recorded values.
+         * @return the number of values recorded since the last reset
+         */
+        long count() {
+            return count.sum();
+        }
+
+        /**
+         * Getter for the mean of the recorded values.
+         * @return the mean of the values, or 0 if none was recorded
+         */
+        double average() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) total.sum() / n;
+        }
+
+        /**
+         * Getter for the largest recorded value.
+         * @return the largest value, or 0 if none was recorded
+         */
+        long max() {
+            return max.get();
+        }
+
+        private void reset() {
+            count.reset();
+            total.reset();
+            max.reset();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * Publishes the metrics to an MBean server, doing nothing if they already are.
+     * @param server the MBean server
+     * @return true if the metrics were published by this call
+     */
+    static boolean register(MBeanServer server) {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                return false;
+            }
+            server.registerMBean(new Metrics(), name);
+            return true;
+        } catch (JMException e) {
+            logger.log(Level.WARNING, "Failed to publish the metrics over JMX", e);
+            return false;
+        }
+    }
+
+    /**
+     * Formats every metric on one line.
+     * @return the current values of the metrics
+     */
+    static String dump() {
+        return String.format("matches=%d feedbacks=%d sizes=%d"
+                             + " corpusLoads=%d (avg %.3f ms, max %.3f ms)"
+                             + " moves=%d (avg %.1f candidates, max %d)"
+                             + " guesses=%d (avg %.3f ms, max %.3f ms)"
+                             + " guessCache=%s",
+                             MATCHES.count(), FEEDBACKS.count(), SIZES.count(),
+                             CORPUS_LOADS.count(), millis(CORPUS_LOADS.average()), millis(CORPUS_LOADS.max()),
+                             CANDIDATES.count(), CANDIDATES.average(), CANDIDATES.max(),
+                             GUESSES.count(), millis(GUESSES.average()), millis(GUESSES.max()),
+                             GuessCache.shared().stats());
+    }
+
+    private static double millis(double nanos) {
+        return nanos / 1_000_000;
+    }
+
+    @Override
+    public long getMatchCount() {
+        return MATCHES.count();
+    }
+
+    @Override
+    public long getFeedbackCount() {
+        return FEEDBACKS.count();
+    }
+
+    @Override
+    public long getSizeCount() {
+        return SIZES.count();
+    }
+
+    @Override
+    public long getCorpusLoadCount() {
+        return CORPUS_LOADS.count();
+    }
+
+    @Override
+    public double getCorpusLoadAverageMillis() {
+        return millis(CORPUS_LOADS.average());
+    }
+
+    @Override
+    public double getCorpusLoadMaxMillis() {
+        return millis(CORPUS_LOADS.max());
+    }
+
+    @Override
+    public long getMoveCount() {
+        return CANDIDATES.count();
+    }
+
+    @Override
+    public double getCandidateAverage() {
+        return CANDIDATES.average();
+    }
+
+    @Override
+    public long getCandidateMax() {
+        return CANDIDATES.max();
+    }
+
+    @Override
+    public long getGuessCount() {
+        return GUESSES.count();
+    }
+
+    @Override
+    public double getGuessAverageMillis() {
+        return millis(GUESSES.average());
+    }
+
+    @Override
+    public double getGuessMaxMillis() {
+        return millis(GUESSES.max());
+    }
+
+    @Override
+    public long getGuessCacheHitCount() {
+        return GuessCache.shared().stats().hits();
+    }
+
+    @Override
+    public long getGuessCacheMissCount() {
+        return GuessCache.shared().stats().misses();
+    }
+
+    @Override
+    public long getGuessCacheEvictionCount() {
+        return GuessCache.shared().stats().evictions();
+    }
+
+    @Override
+    public int getGuessCacheSize() {
+        return GuessCache.shared().stats().size();
+    }
+
+    @Override
+    public void reset() {
+        MATCHES.reset();
+        FEEDBACKS.reset();
+        SIZES.reset();
+        CORPUS_LOADS.reset();
+        CANDIDATES.reset();
+        GUESSES.reset();
+        GuessCache.shared().resetStats();
+    }
+}
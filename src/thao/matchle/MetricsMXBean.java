@@ -0,0 +1,108 @@
+package thao.matchle;
+
+/**
+ * Management interface of the game metrics, published over JMX as {@code thao.matchle:type=Metrics}.
+ * Every value covers the events since the start of the JVM or the last reset.
+ */
+public interface MetricsMXBean {
+    /**
+     * Number of matches building a GuessResult.
+     * @return the number of calls to NGramMatcher.match
+     */
+    long getMatchCount();
+
+    /**
+     * Number of matches building a FeedbackCode.
+     * @return the number of calls to NGramMatcher.feedback and of words matched in batches
+     */
+    long getFeedbackCount();
+
+    /**
+     * Number of corpus sizes consistent with a feedback computed by the strategies.
+     * @return the number of calls to MatchingStrategy.size
+     */
+    long getSizeCount();
+
+    /**
+     * Number of corpora and lexicons loaded from files.
+     * @return the number of loads
+     */
+    long getCorpusLoadCount();
+
+    /**
+     * Mean time to load a corpus or lexicon.
+     * @return the mean load time, in milliseconds
+     */
+    double getCorpusLoadAverageMillis();
+
+    /**
+     * Longest time to load a corpus or lexicon.
+     * @return the longest load time, in milliseconds
+     */
+    double getCorpusLoadMaxMillis();
+
+    /**
+     * Number of moves applied to solver sessions.
+     * @return the number of feedbacks narrowing candidates
+     */
+    long getMoveCount();
+
+    /**
+     * Mean number of candidates left after a move.
+     * @return the mean number of candidates
+     */
+    double getCandidateAverage();
+
+    /**
+     * Largest number of candidates left after a move.
+     * @return the largest number of candidates
+     */
+    long getCandidateMax();
+
+    /**
+     * Number of guesses picked by strategies in solver sessions.
+     * @return the number of strategy guesses
+     */
+    long getGuessCount();
+
+    /**
+     * Mean time a strategy takes to pick a guess.
+     * @return the mean guess time, in milliseconds
+     */
+    double getGuessAverageMillis();
+
+    /**
+     * Longest time a strategy took to pick a guess.
+     * @return the longest guess time, in milliseconds
+     */
+    double getGuessMaxMillis();
+
+    /**
+     * Number of strategy guesses answered by the shared GuessCache.
+     * @return the number of cache hits
+     */
+    long getGuessCacheHitCount();
+
+    /**
+     * Number of strategy guesses the shared GuessCache had to search for.
+     * @return the number of cache misses
+     */
+    long getGuessCacheMissCount();
+
+    /**
+     * Number of guesses the shared GuessCache evicted to make room.
+     * @return the number of cache evictions
+     */
+    long getGuessCacheEvictionCount();
+
+    /**
+     * Number of guesses held by the shared GuessCache.
+     * @return the size of the cache
+     */
+    int getGuessCacheSize();
+
+    /**
+     * Sets every metric back to zero, the GuessCache counts included. The guesses held by the GuessCache are kept.
+     */
+    void reset();
+}
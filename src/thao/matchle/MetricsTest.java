@@ -0,0 +1,113 @@
+package thao.matchle;
+
+import static org.junit.Assert.*;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class MetricsTest {
+    private final MBeanServer server = MBeanServerFactory.newMBeanServer();
+
+    @Test
+    public void testCounter() {
+        Metrics.Counter counter = new Metrics.Counter();
+        assertEquals(0, counter.count());
+        counter.increment();
+        counter.increment();
+        assertEquals(2, counter.count());
+    }
+
+    @Test
+    public void testStatistic() {
+        Metrics.Statistic statistic = new Metrics.Statistic();
+        assertEquals(0, statistic.count());
+        assertEquals(0, statistic.average(), 0);
+        assertEquals(0, statistic.max());
+        statistic.record(3);
+        statistic.record(9);
+        statistic.record(6);
+        assertEquals(3, statistic.count());
+        assertEquals(6, statistic.average(), 1e-9);
+        assertEquals(9, statistic.max());
+    }
+
+    @Test
+    public void testStatisticRecordSince() {
+        Metrics.Statistic statistic = new Metrics.Statistic();
+        statistic.recordSince(System.nanoTime());
+        assertEquals(1, statistic.count());
+        assertTrue(statistic.max() >= 0);
+    }
+
+    @Test
+    public void testStatisticConcurrent() throws InterruptedException {
+        Metrics.Statistic statistic = new Metrics.Statistic();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int value = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    statistic.record(value);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(80_000, statistic.count());
+        assertEquals(7, statistic.max());
+        assertEquals(3.5, statistic.average(), 1e-9);
+    }
+
+    @Test
+    public void testRegister() throws Exception {
+        assertTrue(Metrics.register(server));
+        assertFalse(Metrics.register(server));
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+
+        server.invoke(name, "reset", null, null);
+        Metrics.SIZES.increment();
+        Metrics.CANDIDATES.record(12);
+        Metrics.CORPUS_LOADS.record(2_000_000);
+        assertEquals(1L, server.getAttribute(name, "SizeCount"));
+        assertEquals(0L, server.getAttribute(name, "MatchCount"));
+        assertEquals(12L, server.getAttribute(name, "CandidateMax"));
+        assertEquals(2.0, (Double) server.getAttribute(name, "CorpusLoadMaxMillis"), 1e-9);
+        Corpus corpus = Corpus.Builder.empty(5).add(NGram.from("crane")).add(NGram.from("slate")).build();
+        GuessCache.shared().get(WorstCaseStrategy.class, corpus, () -> corpus.get(0));
+        GuessCache.shared().get(WorstCaseStrategy.class, corpus, () -> corpus.get(0));
+        assertEquals(GuessCache.shared().stats().evictions(), server.getAttribute(name, "GuessCacheEvictionCount"));
+
+        server.invoke(name, "reset", null, null);
+        assertEquals(0L, server.getAttribute(name, "SizeCount"));
+        assertEquals(0L, server.getAttribute(name, "MoveCount"));
+        assertEquals(0L, server.getAttribute(name, "GuessCacheHitCount"));
+        assertEquals(0L, server.getAttribute(name, "GuessCacheMissCount"));
+        assertEquals(0L, server.getAttribute(name, "GuessCacheEvictionCount"));
+    }
+
+    @Test
+    public void testDump() {
+        String dump = Metrics.dump();
+        assertTrue(dump.contains("matches="));
+        assertTrue(dump.contains("corpusLoads="));
+        assertTrue(dump.contains("candidates"));
+        assertTrue(dump.contains("guesses="));
+    }
+
+    @Test
+    public void testNothingRecordedWhenDisabled() {
+        Assume.assumeFalse(Metrics.ENABLED);
+        long matches = Metrics.MATCHES.count();
+        long feedbacks = Metrics.FEEDBACKS.count();
+        NGramMatcher.of(NGram.from("crane"), NGram.from("slate")).match();
+        NGramMatcher.feedback(NGram.from("crane"), NGram.from("slate"));
+        assertEquals(matches, Metrics.MATCHES.count());
+        assertEquals(feedbacks, Metrics.FEEDBACKS.count());
+    }
+}
@@ -1,24 +1,93 @@
 package thao.matchle;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.stream.*;
 
 /**
  * NGram class represents a sequence of characters (n-gram) and provides methods to manipulate and query the n-gram.
  * It implements Iterable interface on IndexedCharacter type to allow iteration over the characters in the n-gram.
+ * N-grams are ordered alphabetically, a shorter n-gram coming before the longer n-grams it is a prefix of.
  * 
  */
-public class NGram implements Iterable<IndexedCharacter>{
-    private final List<Character> ngram;
+public class NGram implements Iterable<IndexedCharacter>, Comparable<NGram> {
+    /**
+     * Longest n-gram that can be packed into a single long.
+     */
+    static final int PACKED_LIMIT = 12;
+    /**
+     * Number of bits used by each packed letter, enough for the 26 lowercase letters.
+     */
+    private static final int BITS_PER_LETTER = 5;
+    private static final long LETTER_MASK = (1L << BITS_PER_LETTER) - 1;
+    /**
+     * Lowest bit of every packed letter field.
+     */
+    private static final long LOW_BITS = lowBits();
+    /**
+     * Highest bit of every packed letter field.
+     */
+    private static final long HIGH_BITS = LOW_BITS << (BITS_PER_LETTER - 1);
+    /**
+     * Bit of a letter mask standing for every letter other than the lowercase letters a to z.
+     */
+    public static final int OTHER_LETTERS = 1 << 26;
+
+    /**
+     * Action performed on every letter of an n-gram, with primitive arguments so that no letter is boxed.
+     */
+    @FunctionalInterface
+    public interface LetterConsumer {
+        /**
+         * Performs the action on a letter.
+         * @param index the index of the letter
+         * @param letter the letter
+         */
+        void accept(int index, char letter);
+    }
+
+    /**
+     * Letters of the n-gram, or null if the n-gram is packed.
+     */
+    private final char[] letters;
+    /**
+     * Letters of the n-gram packed five bits each, the letter at index 0 being the least significant.
+     * Only meaningful if letters is null.
+     */
+    private final long packed;
+    /**
+     * Number of letters in the n-gram.
+     */
+    private final int size;
 
     /**
      * Constructor for NGram.
-     * @param ngram
-     * @param charset
+     * N-grams of at most PACKED_LIMIT lowercase letters are packed into a long and drop the array,
+     * all others keep their letters in the array.
+     * @param letters the letters of the n-gram, owned by the new NGram
      */
-    private NGram(ArrayList<Character> ngram) {
-        assert ngram != null;
-        this.ngram = ngram;
+    private NGram(char[] letters) {
+        assert letters != null;
+        this.size = letters.length;
+        if (isPackable(letters)) {
+            this.letters = null;
+            this.packed = pack(letters);
+        } else {
+            this.letters = letters;
+            this.packed = 0;
+        }
+    }
+
+    /**
+     * Constructor for a packed NGram.
+     * @param packed the letters packed five bits each
+     * @param size the number of letters, at most PACKED_LIMIT
+     */
+    private NGram(long packed, int size) {
+        assert size <= PACKED_LIMIT;
+        this.letters = null;
+        this.packed = packed;
+        this.size = size;
     }
 
     /**
@@ -31,8 +100,11 @@ public class NGram implements Iterable<IndexedCharacter>{
         NullCharacterException.validate(word);
         
         // Copy word into ngram
-        ArrayList<Character> ngram = new ArrayList<>(word);
-        return new NGram(ngram);
+        char[] letters = new char[word.size()];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = word.get(i);
+        }
+        return new NGram(letters);
     }
 
     /**
@@ -41,11 +113,154 @@ public class NGram implements Iterable<IndexedCharacter>{
      * @return a new NGram object created from the string.
      */
     public static final NGram from(String word) {
-        // Convert String into List
-        List<Character> charList = word.chars().mapToObj(c -> Character.valueOf((char) c)).collect(Collectors.toList());
-        NullCharacterException.validate(charList);
+        return new NGram(word.toCharArray());
+    }
+
+    /**
+     * Creates a new NGram from the letters of an array, which the caller may reuse afterwards.
+     * The array is only copied if the letters can not be packed.
+     * @param letters the letters of the n-gram
+     * @return a new NGram object holding the letters
+     * @throws NullPointerException if letters is null
+     */
+    static NGram copyOf(char[] letters) {
+        Objects.requireNonNull(letters);
+        return isPackable(letters) ? new NGram(pack(letters), letters.length) : new NGram(letters.clone());
+    }
+
+    /**
+     * Creates a new NGram from a range of ASCII bytes, such as a line of a memory-mapped word list.
+     * Lowercase words are packed straight from the bytes without any intermediate array.
+     * @param ascii the buffer holding the bytes, each of which must be below 0x80
+     * @param from the index of the first byte of the word, inclusive
+     * @param to the index of the last byte of the word, exclusive
+     * @return a new NGram object holding the letters of the bytes
+     * @throws NullPointerException if ascii is null
+     * @throws IndexOutOfBoundsException if the range is out of the bounds of the buffer
+     */
+    static NGram fromAscii(ByteBuffer ascii, int from, int to) {
+        Objects.requireNonNull(ascii);
+        Objects.checkFromToIndex(from, to, ascii.limit());
+        int size = to - from;
+        if (size <= PACKED_LIMIT) {
+            long packed = 0;
+            int i = to - 1;
+            for (; i >= from; i--) {
+                byte c = ascii.get(i);
+                if (c < 'a' || c > 'z') {
+                    break;
+                }
+                packed = (packed << BITS_PER_LETTER) | (c - 'a');
+            }
+            if (i < from) {
+                return new NGram(packed, size);
+            }
+        }
+        char[] letters = new char[size];
+        for (int i = 0; i < size; i++) {
+            letters[i] = (char) ascii.get(from + i);
+        }
+        return new NGram(letters);
+    }
+
+    /**
+     * Checks whether the letters can be held in packed form.
+     * @param letters the letters to check
+     * @return true if there are at most PACKED_LIMIT letters and all of them are lowercase a to z
+     */
+    private static boolean isPackable(char[] letters) {
+        if (letters.length > PACKED_LIMIT) {
+            return false;
+        }
+        for (char c : letters) {
+            if (c < 'a' || c > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the hash code of the n-gram of a sequence of letters, without creating the n-gram.
+     * @param word the letters
+     * @return the hashCode the NGram of the letters has
+     * @throws NullPointerException if word is null
+     */
+    static int hashOf(CharSequence word) {
+        int size = word.length();
+        if (size <= PACKED_LIMIT) {
+            long packed = 0;
+            int i = size - 1;
+            for (; i >= 0 && word.charAt(i) >= 'a' && word.charAt(i) <= 'z'; i--) {
+                packed = (packed << BITS_PER_LETTER) | (word.charAt(i) - 'a');
+            }
+            if (i < 0) {
+                return 31 * Long.hashCode(packed) + size;
+            }
+        }
+        // Same as Arrays.hashCode of the letters
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + word.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Checks whether the n-gram holds exactly the letters of a sequence, without creating an n-gram.
+     * @param word the letters to compare with
+     * @return true if the n-gram and the sequence have the same letters in the same order, false otherwise
+     * @throws NullPointerException if word is null
+     */
+    public boolean contentEquals(CharSequence word) {
+        Objects.requireNonNull(word);
+        if (word.length() != size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (charAt(i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long pack(char[] letters) {
+        long packed = 0;
+        for (int i = letters.length - 1; i >= 0; i--) {
+            packed = (packed << BITS_PER_LETTER) | (letters[i] - 'a');
+        }
+        return packed;
+    }
+
+    private static long lowBits() {
+        long bits = 0;
+        for (int i = 0; i < PACKED_LIMIT; i++) {
+            bits |= 1L << (i * BITS_PER_LETTER);
+        }
+        return bits;
+    }
+
+    /**
+     * Checks whether the n-gram is held in packed form.
+     * @return true if the letters are packed into a long, false otherwise.
+     */
+    boolean isPacked() {
+        return letters == null;
+    }
 
-        return from(charList);
+    /**
+     * Primitive getter for a character in n-gram, which boxes nothing.
+     * @param i the index of the character to retrieve.
+     * @return the character at the specified index.
+     * @throws IndexOutOfBoundsException if i is out of bounds.
+     */
+    public char charAt(int i) {
+        Objects.checkIndex(i, size);
+        if (isPacked()) {
+            return (char) ('a' + ((packed >>> (i * BITS_PER_LETTER)) & LETTER_MASK));
+        }
+        return letters[i];
     }
 
     /**
@@ -54,7 +269,7 @@ public class NGram implements Iterable<IndexedCharacter>{
      * @return the character at the specified index.
      */
     public Character get(int i) {
-        return ngram.get(i); 
+        return charAt(i); 
     }
 
     /**
@@ -62,7 +277,7 @@ public class NGram implements Iterable<IndexedCharacter>{
      * @return the length of the n-gram.
      */
     public int size() {
-        return ngram.size();
+        return size;
     }
 
     /**
@@ -70,9 +285,9 @@ public class NGram implements Iterable<IndexedCharacter>{
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        for (char c : ngram) {
-            sb.append(c);
+        StringBuilder sb = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            sb.append(charAt(i));
         }
         return sb.toString();
     }
@@ -86,16 +301,37 @@ public class NGram implements Iterable<IndexedCharacter>{
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         NGram n = (NGram) o;
-        return this.ngram.equals(n.ngram);
+        // Equal letters are always held in the same form
+        if (this.size != n.size || this.isPacked() != n.isPacked()) return false;
+        return isPacked() ? this.packed == n.packed : Arrays.equals(this.letters, n.letters);
     }
     
     // The hashSet uses the hashCode method to determine if two objects are the same.
     // If two objects are the same, they must have the same hashCode.
     @Override
     public int hashCode() {
-        return Objects.hash(ngram);
+        return isPacked() ? 31 * Long.hashCode(packed) + size : Arrays.hashCode(letters);
     }
     
+    /**
+     * Compares two n-grams alphabetically.
+     * @param o the other NGram to compare with.
+     * @throws NullPointerException if o is null.
+     * @return a negative number, zero or a positive number if this n-gram comes before, is equal to, or comes after the other.
+     */
+    @Override
+    public int compareTo(NGram o) {
+        Objects.requireNonNull(o);
+        int common = Math.min(this.size, o.size);
+        for (int i = 0; i < common; i++) {
+            int difference = Character.compare(this.charAt(i), o.charAt(i));
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return Integer.compare(this.size, o.size);
+    }
+
     /**
      * Checks if the character at the specified index matches the character in the n-gram at the same index.
      * @param c the IndexedCharacter to check.
@@ -104,7 +340,7 @@ public class NGram implements Iterable<IndexedCharacter>{
      */
     public boolean matches(IndexedCharacter c)  {
         Objects.requireNonNull(c);
-        return c.character().equals(ngram.get(c.index()));
+        return c.character() == charAt(c.index());
     }    
 
     /**
@@ -115,7 +351,7 @@ public class NGram implements Iterable<IndexedCharacter>{
      */
     public boolean contains(IndexedCharacter c) {
         Objects.requireNonNull(c);
-        return ngram.contains(c.character());
+        return contains(c.character());
     }
 
     /**
@@ -126,7 +362,31 @@ public class NGram implements Iterable<IndexedCharacter>{
      */
     public boolean contains(Character c) {
         Objects.requireNonNull(c);
-        return ngram.contains(c);
+        return contains(c.charValue());
+    }
+
+    /**
+     * Primitive check whether a character appears anywhere in the n-gram, which boxes nothing.
+     * A packed n-gram is checked all at once by looking for a letter field equal to c.
+     * @param c the character to check.
+     * @return true if the character appears in the n-gram, false otherwise.
+     */
+    public boolean contains(char c) {
+        if (!isPacked()) {
+            for (char letter : letters) {
+                if (letter == c) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (c < 'a' || c > 'z') {
+            return false;
+        }
+        long used = (1L << (size * BITS_PER_LETTER)) - 1;
+        // Fields equal to c become zero, unused fields are forced to be non-zero
+        long fields = ((packed ^ (LOW_BITS * (c - 'a'))) & used) | (LOW_BITS & ~used);
+        return ((fields - LOW_BITS) & ~fields & HIGH_BITS) != 0;
     }
 
     /**
@@ -140,6 +400,48 @@ public class NGram implements Iterable<IndexedCharacter>{
         return this.contains(c) && !this.matches(c);
     }
 
+    /**
+     * Set of the letters of the n-gram, one bit per letter.
+     * Bit i stands for the letter 'a' + i, and the bit OTHER_LETTERS for any letter outside of a to z,
+     * so two n-grams made of lowercase letters share a letter if and only if their masks intersect.
+     * @return the mask of the letters of the n-gram
+     */
+    public int letterMask() {
+        int mask = 0;
+        if (isPacked()) {
+            long fields = packed;
+            for (int i = 0; i < size; i++) {
+                mask |= 1 << (int) (fields & LETTER_MASK);
+                fields >>>= BITS_PER_LETTER;
+            }
+            return mask;
+        }
+        for (char letter : letters) {
+            mask |= letter >= 'a' && letter <= 'z' ? 1 << (letter - 'a') : OTHER_LETTERS;
+        }
+        return mask;
+    }
+
+    /**
+     * Allow for traversal of the letters of the n-gram as primitive values.
+     * @return a stream of the letters, in order.
+     */
+    public IntStream chars() {
+        return IntStream.range(0, size).map(this::charAt);
+    }
+
+    /**
+     * Performs an action on every letter of the n-gram, in order, without boxing any letter.
+     * @param action the action to perform on each index and letter.
+     * @throws NullPointerException if action is null.
+     */
+    public void forEachLetter(LetterConsumer action) {
+        Objects.requireNonNull(action);
+        for (int i = 0; i < size; i++) {
+            action.accept(i, charAt(i));
+        }
+    }
+
     /**
      * Allow for traversal of the n-gram using a stream.
      * @return a stream of IndexedCharacter objects.
@@ -177,32 +479,25 @@ public class NGram implements Iterable<IndexedCharacter>{
         /**
          * Checks if there are more characters in the n-gram.
          * @return true if there are more characters, false otherwise.
-         * @throws NullPointerException if ngram is null.
-         * @throws IllegalStateException if index is negative or out of bounds.
+         * @throws IllegalStateException if index is negative.
          */
         public boolean hasNext() {
-            Objects.requireNonNull(ngram);
             if (index < 0) {
                 throw new IllegalStateException("Index must be non-negative");
             }
-            if (index >= ngram.size()) {
-                throw new IllegalStateException("Index out of bounds");
-            }
-            return index < ngram.size();
+            return index < size;
         }
 
         /**
          * Returns the next IndexedCharacter in the n-gram.
          * @return the next IndexedCharacter.
          * @throws NoSuchElementException if there are no more characters.
-         * @throws NullPointerException if ngram is null.
          */
         public IndexedCharacter next() {
-            Objects.requireNonNull(ngram);
             if (!hasNext()) {
                 throw new NoSuchElementException("No more elements in the iterator");
             }
-            IndexedCharacter indexedCharacter = new IndexedCharacter(index, ngram.get(index));
+            IndexedCharacter indexedCharacter = new IndexedCharacter(index, charAt(index));
             index++;
             return indexedCharacter;
         }
@@ -1,8 +1,8 @@
 package thao.matchle;
 
-import java.util.*;
-import java.util.function.*;
-import java.util.stream.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import thao.matchle.GuessResult.MatchType;
 
 /**
@@ -37,55 +37,90 @@ class NGramMatcher {
      * @return a GuessResult representing the match result
      */
     public GuessResult match () {
+        if (Metrics.ENABLED) {
+            Metrics.MATCHES.increment();
+        }
+        if (FeedbackCache.SHARED != null && guess.size() <= FeedbackCode.MAX_LENGTH) {
+            // A cached code skips the letter scans, only the result is built
+            return FeedbackCode.toGuessResult(guess, cached(FeedbackCache.SHARED, key, guess));
+        }
         // Create a resultMap that shows how the guess matches the key
-        GuessResult result = matchIdentical().merge(matchDifferent().merge(matchAbsent()));
-
-        return result;    
+        Map<IndexedCharacter, MatchType> resultMap = new HashMap<>();
+        for (int i = 0; i < guess.size(); i++) {
+            resultMap.put(new IndexedCharacter(i, guess.get(i)), matchType(key, i, guess.charAt(i)));
+        }
+        return GuessResult.of(guess, resultMap);
     }
 
     /**
-     * Template matching algorithm for all three match cases
-     * @param matchTest the predicate to test for each indexed character in the guess
-     * @param matchType the type of match (EXACT, PARTIAL, NONE) being mapped to the character that pass the matchTest
-     * @return a GuessResult representing the match result
+     * Matches the guess against the key without building a GuessResult.
+     * @return the FeedbackCode of the match result
+     * @throws IllegalArgumentException if the guess is longer than FeedbackCode.MAX_LENGTH
      */
-    private GuessResult match(Predicate<? super IndexedCharacter> matchTest, MatchType matchType) {
-        Objects.requireNonNull(matchType);
-        Objects.requireNonNull(matchTest);
-        
-        Map<IndexedCharacter, MatchType> resultMap =  
-           guess.stream()
-                .filter(matchTest)
-                .map(guessedIndexedChar -> {
-                    return new AbstractMap.SimpleEntry<IndexedCharacter, MatchType>(guessedIndexedChar, matchType);
-                }).collect(Collectors.toMap(Map.Entry<IndexedCharacter, MatchType>::getKey, Map.Entry<IndexedCharacter, MatchType>::getValue));
-        return GuessResult.of(guess, resultMap);
+    public long code() {
+        return feedback(key, guess);
     }
 
     /**
-     * Matches the guess against the key for identical characters.
-     * This is the first match case.
-     * @return a GuessResult representing the match result
-    */
-    private GuessResult matchIdentical() {
-        return match(key::matches, MatchType.EXACT);
+     * Allocation-free matching algorithm for the hot path, built on the primitive accessors of NGram only.
+     * Folds the match type of every letter of the guess into a FeedbackCode.
+     * @param key the target n-gram
+     * @param guess the guessed n-gram
+     * @return the FeedbackCode of the match result
+     * @throws NullPointerException if key or guess is null
+     * @throws IllegalArgumentException if the guess is longer than FeedbackCode.MAX_LENGTH
+     */
+    static long feedback(NGram key, NGram guess) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(guess);
+        if (guess.size() > FeedbackCode.MAX_LENGTH) {
+            throw new IllegalArgumentException("Guess can not be longer than " + FeedbackCode.MAX_LENGTH);
+        }
+        if (Metrics.ENABLED) {
+            Metrics.FEEDBACKS.increment();
+        }
+        return FeedbackCache.SHARED != null ? cached(FeedbackCache.SHARED, key, guess) : compute(key, guess);
     }
 
     /**
-     * Matches the guess against the key for characters that are present but not in the same position.
-     * This is the second match case.
-     * @return a GuessResult representing the match result
-    */
-    private GuessResult matchDifferent() {
-        return match(key::containsElseWhere, MatchType.PARTIAL);
+     * Looks the feedback code of a pair up in a cache, matching and caching the pair on a miss.
+     * @param cache the cache of feedback codes
+     * @param key the target n-gram
+     * @param guess the guessed n-gram, at most FeedbackCode.MAX_LENGTH long
+     * @return the FeedbackCode of the match result
+     */
+    static long cached(FeedbackCache cache, NGram key, NGram guess) {
+        long code = cache.get(key, guess);
+        if (code == FeedbackCache.MISS) {
+            code = compute(key, guess);
+            cache.put(key, guess, code);
+        }
+        return code;
+    }
+
+    private static long compute(NGram key, NGram guess) {
+        long code = FeedbackCode.EXACT_MATCH;
+        for (int i = guess.size() - 1; i >= 0; i--) {
+            code = FeedbackCode.append(code, matchType(key, i, guess.charAt(i)));
+        }
+        return code;
     }
 
     /**
-     * Matches the guess against the key for characters that are not present at all.
-     * This is the third match case.
-     * @return a GuessResult representing the match result
-    */
-    private GuessResult matchAbsent() {
-        return match(Predicate.not(key::contains), MatchType.NONE);
+     * Matches a single letter of the guess against the key.
+     * @param key the target n-gram
+     * @param index the index of the letter in the guess
+     * @param c the letter of the guess
+     * @return EXACT if the key has the letter at the same index (first match case),
+     * PARTIAL if the key has it elsewhere (second match case), NONE otherwise (third match case)
+     */
+    private static MatchType matchType(NGram key, int index, char c) {
+        if (key.charAt(index) == c) {
+            return MatchType.EXACT;
+        }
+        if (key.contains(c)) {
+            return MatchType.PARTIAL;
+        }
+        return MatchType.NONE;
     }
 }
@@ -1,5 +1,8 @@
 package thao.matchle;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import org.junit.Assume;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -44,4 +47,40 @@ public class NGramMatcherTest {
         
         assertEquals(GuessResult.MatchType.NONE, result.getMatchType(0));
     }
+    @Test
+    public void testCodeAgreesWithMatch() {
+        NGram key = NGram.from("apple");
+        NGram guess = NGram.from("often");
+
+        NGramMatcher matcher = NGramMatcher.of(key, guess);
+
+        assertEquals(FeedbackCode.of(matcher.match()), matcher.code());
+    }
+    @Test(expected = IllegalArgumentException.class)
+    public void testFeedbackTooLong() {
+        NGram word = NGram.from("a".repeat(FeedbackCode.MAX_LENGTH + 1));
+        NGramMatcher.feedback(word, word);
+    }
+
+    @Test
+    public void testFeedbackAllocatesNothing() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        Assume.assumeTrue(allocations.isThreadAllocatedMemoryEnabled());
+        Assume.assumeTrue(FeedbackCache.SHARED == null);
+        NGram[] words = {NGram.from("crane"), NGram.from("eerie"), NGram.from("héllo"), NGram.from("slate")};
+        long sink = 0;
+        for (int i = 0; i < 100_000; i++) {
+            sink += NGramMatcher.feedback(words[i & 3], words[(i >>> 2) & 3]);
+        }
+        long before = allocations.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            sink += NGramMatcher.feedback(words[i & 3], words[(i >>> 2) & 3]);
+        }
+        long allocated = allocations.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(sink > 0);
+        // A single boxed letter per match would take megabytes
+        assertTrue("Allocated " + allocated + " bytes", allocated < 10_000);
+    }
 }
@@ -2,6 +2,7 @@ package thao.matchle;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -107,4 +108,124 @@ public class NGramTest {
             assertEquals("Index must be non-negative", e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPackedStorage() {
+        assertTrue(NGram.from("abcdefghijkl").isPacked());
+        assertFalse(NGram.from("abcdefghijklm").isPacked());
+        assertFalse(NGram.from("test1").isPacked());
+        assertFalse(NGram.from("Apple").isPacked());
+    }
+
+    @Test
+    public void testPackedEqualsAndHashCode() {
+        NGram packed = NGram.from("apple");
+        NGram fromList = NGram.from(List.of('a', 'p', 'p', 'l', 'e'));
+        assertEquals(packed, fromList);
+        assertEquals(packed.hashCode(), fromList.hashCode());
+        // "a" packs to zero, so the size must tell these apart
+        assertNotEquals(NGram.from("a"), NGram.from("aa"));
+        assertEquals("apple", packed.toString());
+    }
+
+    @Test
+    public void testPackedContains() {
+        NGram ngram = NGram.from("bcdz");
+        assertTrue(ngram.contains('z'));
+        assertTrue(ngram.contains('b'));
+        // unused letter fields read as 'a' and must not match
+        assertFalse(ngram.contains('a'));
+        assertFalse(ngram.contains('e'));
+        assertFalse(ngram.contains('1'));
+    }
+
+    @Test
+    public void testContainsAgreesWithString() {
+        for (String word : List.of("a", "zzzzzzzzzzzz", "abcdefghijkl", "mississippi", "test1", "abcdefghijklmno")) {
+            NGram ngram = NGram.from(word);
+            for (char c = '0'; c <= 'z'; c++) {
+                assertEquals(word + " " + c, word.indexOf(c) >= 0, ngram.contains(c));
+            }
+        }
+    }
+
+    @Test
+    public void testCompareTo() {
+        assertTrue(NGram.from("abc").compareTo(NGram.from("abd")) < 0);
+        assertTrue(NGram.from("abd").compareTo(NGram.from("abc")) > 0);
+        assertTrue(NGram.from("ab").compareTo(NGram.from("abc")) < 0);
+        assertEquals(0, NGram.from("abc").compareTo(NGram.from(List.of('a', 'b', 'c'))));
+    }
+
+    @Test
+    public void testCharAt() {
+        for (String word : List.of("crane", "abcdefghijklmno", "héllo")) {
+            NGram ngram = NGram.from(word);
+            for (int i = 0; i < word.length(); i++) {
+                assertEquals(word.charAt(i), ngram.charAt(i));
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testCharAtOutOfBounds() {
+        NGram.from("crane").charAt(5);
+    }
+
+    @Test
+    public void testChars() {
+        for (String word : List.of("crane", "abcdefghijklmno", "héllo", "")) {
+            assertArrayEquals(word.chars().toArray(), NGram.from(word).chars().toArray());
+        }
+    }
+
+    @Test
+    public void testForEachLetter() {
+        StringBuilder sb = new StringBuilder();
+        NGram.from("héllo").forEachLetter((index, letter) -> {
+            assertEquals(sb.length(), index);
+            sb.append(letter);
+        });
+        assertEquals("héllo", sb.toString());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testForEachLetterNull() {
+        NGram.from("crane").forEachLetter(null);
+    }
+
+    @Test
+    public void testLetterMask() {
+        int crane = (1 << 'c' - 'a') | (1 << 'r' - 'a') | (1 << 'a' - 'a') | (1 << 'n' - 'a') | (1 << 'e' - 'a');
+        assertEquals(crane, NGram.from("crane").letterMask());
+        assertEquals(1 << 'z' - 'a', NGram.from("zzzzzzzzzzzzzzz").letterMask());
+        assertEquals((1 << 'h' - 'a') | (1 << 'l' - 'a') | (1 << 'o' - 'a') | NGram.OTHER_LETTERS,
+                     NGram.from("héllo").letterMask());
+        assertEquals(0, NGram.from("").letterMask());
+        assertEquals(0, NGram.from("crane").letterMask() & NGram.from("fluty").letterMask());
+        assertNotEquals(0, NGram.from("crane").letterMask() & NGram.from("abcdefghijklmno").letterMask());
+    }
+
+    @Test
+    public void testHashOf() {
+        for (String word : List.of("", "a", "crane", "abcdefghijkl", "abcdefghijklm", "Crane", "héllo", "test1")) {
+            assertEquals(word, NGram.from(word).hashCode(), NGram.hashOf(word));
+            assertEquals(word, NGram.from(word).hashCode(), NGram.hashOf(new StringBuilder(word)));
+        }
+    }
+
+    @Test
+    public void testContentEquals() {
+        assertTrue(NGram.from("crane").contentEquals("crane"));
+        assertTrue(NGram.from("héllo").contentEquals(new StringBuilder("héllo")));
+        assertTrue(NGram.from("").contentEquals(""));
+        assertFalse(NGram.from("crane").contentEquals("crate"));
+        assertFalse(NGram.from("crane").contentEquals("cranes"));
+        assertFalse(NGram.from("crane").contentEquals("Crane"));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testContentEqualsNull() {
+        NGram.from("crane").contentEquals(null);
+    }
+}
@@ -0,0 +1,233 @@
+package thao.matchle;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * OpeningBook class holds precomputed guesses for the opening moves of a game.
+ * The first guess over a full corpus is the most expensive one and always the same for a given corpus and strategy,
+ * so the book maps a strategy and the fingerprint of a corpus to its best guess. The second moves are recorded
+ * the same way, keyed by the fingerprint of the candidates left after each feedback to the first guess.
+ * Books are stored next to the word list and registered when the word list is loaded, after which
+ * the strategies look their guess up in the registered books before searching.
+ */
+public final class OpeningBook {
+    /**
+     * Logger object to log messages.
+     */
+    private static final Logger logger = Logger.getLogger(OpeningBook.class.getName());
+    /**
+     * Extension appended to the word list file name to name its book.
+     */
+    static final String EXTENSION = ".book";
+    /**
+     * Strategies the book is built for, by simple class name.
+     */
+    static final Map<String, Function<Corpus, MatchingStrategy>> STRATEGIES = Map.of(
+            WorstCaseStrategy.class.getSimpleName(), WorstCaseStrategy::from,
+            AverageCaseStrategy.class.getSimpleName(), AverageCaseStrategy::from,
+            EntropyStrategy.class.getSimpleName(), EntropyStrategy::from);
+    /**
+     * Entries of every registered book.
+     */
+    private static final Map<Key, NGram> registry = new ConcurrentHashMap<>();
+
+    /**
+     * Key of a book entry.
+     * @param strategy the simple class name of the strategy
+     * @param fingerprint the fingerprint of the corpus the strategy guesses over
+     */
+    record Key(String strategy, long fingerprint) {
+    }
+
+    private final Map<Key, NGram> entries;
+
+    private OpeningBook(Map<Key, NGram> entries) {
+        assert entries != null;
+        this.entries = entries;
+    }
+
+    /**
+     * Builds the book of a corpus by running every strategy over it.
+     * @param corpus the corpus to build the book for
+     * @param secondMoves whether to also record the second guess for every feedback to the first guess
+     * @return the book of the corpus
+     * @throws NullPointerException if corpus is null
+     */
+    static OpeningBook build(Corpus corpus, boolean secondMoves) {
+        Objects.requireNonNull(corpus);
+        Map<Key, NGram> entries = new LinkedHashMap<>();
+        STRATEGIES.forEach((name, strategy) -> {
+            NGram first = strategy.apply(corpus).guess();
+            entries.put(new Key(name, corpus.fingerprint()), first);
+            if (secondMoves) {
+                for (Corpus candidates : candidatesAfter(first, corpus)) {
+                    entries.put(new Key(name, candidates.fingerprint()), strategy.apply(candidates).guess());
+                }
+            }
+        });
+        return new OpeningBook(entries);
+    }
+
+    /**
+     * Splits the corpus into the candidates left after each possible feedback to a guess.
+     */
+    private static List<Corpus> candidatesAfter(NGram guess, Corpus corpus) {
+        Map<Long, Corpus.Builder> buckets = new LinkedHashMap<>();
+        for (NGram key : corpus) {
+            buckets.computeIfAbsent(NGramMatcher.feedback(key, guess), code -> Corpus.Builder.empty(corpus.wordSize()))
+                   .add(key);
+        }
+        return buckets.values().stream().map(Corpus.Builder::build).toList();
+    }
+
+    /**
+     * Reads a book from a file.
+     * Each line holds a strategy name, a corpus fingerprint in hexadecimal and a guess, separated by spaces.
+     * @param file the book file
+     * @return the book read from the file
+     * @throws NullPointerException if file is null
+     * @throws IOException if the file can not be read or a line is malformed
+     */
+    static OpeningBook read(Path file) throws IOException {
+        Objects.requireNonNull(file);
+        Map<Key, NGram> entries = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            if (fields.length != 3) {
+                throw new IOException("Malformed opening book line: " + line);
+            }
+            try {
+                entries.put(new Key(fields[0], Long.parseUnsignedLong(fields[1], 16)), NGram.from(fields[2]));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed opening book line: " + line, e);
+            }
+        }
+        return new OpeningBook(entries);
+    }
+
+    /**
+     * Writes the book to a file, replacing its content.
+     * @param file the book file
+     * @throws NullPointerException if file is null
+     * @throws IOException if the file can not be written
+     */
+    void write(Path file) throws IOException {
+        Objects.requireNonNull(file);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("# strategy corpus-fingerprint guess");
+            writer.newLine();
+            for (Map.Entry<Key, NGram> entry : entries.entrySet()) {
+                writer.write(entry.getKey().strategy() + " " + Long.toHexString(entry.getKey().fingerprint())
+                             + " " + entry.getValue());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Getter for the entries of the book.
+     * @return an unmodifiable view of the entries
+     */
+    Map<Key, NGram> entries() {
+        return Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Adds the entries of the book to the registry consulted by the strategies.
+     */
+    void register() {
+        registry.putAll(entries);
+    }
+
+    /**
+     * Gets the path of the book stored next to a word list.
+     * @param wordList the path to the word list
+     * @return the path to the book of the word list
+     * @throws NullPointerException if wordList is null
+     */
+    static Path beside(Path wordList) {
+        Objects.requireNonNull(wordList);
+        return Paths.get(wordList + EXTENSION);
+    }
+
+    /**
+     * Registers the book stored next to a word list, if there is one.
+     * A book that can not be read is logged and ignored, the strategies then search as usual.
+     * @param wordList the path to the word list
+     * @throws NullPointerException if wordList is null
+     */
+    static void registerBeside(Path wordList) {
+        Path file = beside(wordList);
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            read(file).register();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Ignoring unreadable opening book " + file, e);
+        }
+    }
+
+    /**
+     * Looks the guess of a strategy over a corpus up in the registered books.
+     * @param strategy the class of the strategy
+     * @param corpus the corpus the strategy guesses over
+     * @return the recorded guess if a registered book has one for the corpus, empty otherwise
+     * @throws NullPointerException if strategy or corpus is null
+     */
+    static Optional<NGram> lookup(Class<? extends MatchingStrategy> strategy, Corpus corpus) {
+        Objects.requireNonNull(strategy);
+        Objects.requireNonNull(corpus);
+        if (registry.isEmpty()) {
+            return Optional.empty();
+        }
+        NGram guess = registry.get(new Key(strategy.getSimpleName(), corpus.fingerprint()));
+        // Guard against fingerprint collisions with a corpus of other words
+        return guess != null && corpus.contains(guess) ? Optional.of(guess) : Optional.empty();
+    }
+
+    /**
+     * Builds the book of a word list and stores it next to the word list.
+     * Usage: OpeningBook wordListPath wordSize [--second]
+     * @param args command line arguments
+     * @throws IOException if the book can not be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: OpeningBook wordListPath wordSize [--second]");
+            return;
+        }
+        Path wordList = Paths.get(args[0]);
+        Corpus corpus = Game.corpusFromFile(args[0], Integer.parseInt(args[1]));
+        boolean secondMoves = args.length > 2 && args[2].equals("--second");
+        // Search from scratch instead of answering from the book being rebuilt
+        registry.clear();
+
+        // Keep the entries of the other word sizes already in the book
+        Map<Key, NGram> entries = new LinkedHashMap<>();
+        if (Files.exists(beside(wordList))) {
+            entries.putAll(read(beside(wordList)).entries);
+        }
+        entries.putAll(build(corpus, secondMoves).entries);
+        new OpeningBook(entries).write(beside(wordList));
+        System.out.println("Wrote " + entries.size() + " entries to " + beside(wordList));
+    }
+}
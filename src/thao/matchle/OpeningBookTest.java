@@ -0,0 +1,72 @@
+package thao.matchle;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class OpeningBookTest {
+    private static final Corpus TEST_CORPUS = Corpus.Builder.empty(5)
+            .add(NGram.from("apple"))
+            .add(NGram.from("grape"))
+            .add(NGram.from("peach"))
+            .add(NGram.from("berry"))
+            .add(NGram.from("melon"))
+            .build();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testBuildFirstMoves() {
+        OpeningBook book = OpeningBook.build(TEST_CORPUS, false);
+        assertEquals(3, book.entries().size());
+        OpeningBook.Key key = new OpeningBook.Key(WorstCaseStrategy.class.getSimpleName(), TEST_CORPUS.fingerprint());
+        assertEquals(WorstCaseStrategy.from(TEST_CORPUS).guess(), book.entries().get(key));
+    }
+
+    @Test
+    public void testBuildSecondMoves() {
+        assertTrue(OpeningBook.build(TEST_CORPUS, true).entries().size() > 3);
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        OpeningBook book = OpeningBook.build(TEST_CORPUS, true);
+        Path file = folder.newFile("words.txt" + OpeningBook.EXTENSION).toPath();
+        book.write(file);
+        assertEquals(book.entries(), OpeningBook.read(file).entries());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadMalformed() throws IOException {
+        Path file = folder.newFile("bad.book").toPath();
+        Files.writeString(file, "WorstCaseStrategy not-hex apple\n");
+        OpeningBook.read(file);
+    }
+
+    @Test
+    public void testStrategiesUseRegisteredBook() throws IOException {
+        Corpus corpus = Corpus.Builder.empty(4)
+                .add(NGram.from("book"))
+                .add(NGram.from("cook"))
+                .add(NGram.from("look"))
+                .build();
+        Path wordList = folder.newFile("book-words.txt").toPath();
+        // Record a guess no strategy would pick, to tell a lookup from a search
+        Files.writeString(OpeningBook.beside(wordList), String.format("%s %x look%n%s %x cook%n",
+                WorstCaseStrategy.class.getSimpleName(), corpus.fingerprint(),
+                AverageCaseStrategy.class.getSimpleName(), corpus.fingerprint()));
+
+        assertEquals(NGram.from("book"), WorstCaseStrategy.from(corpus).guess());
+        OpeningBook.registerBeside(wordList);
+        assertEquals(NGram.from("look"), WorstCaseStrategy.from(corpus).guess());
+        assertEquals(NGram.from("cook"), AverageCaseStrategy.from(corpus).guess());
+        assertTrue(OpeningBook.lookup(EntropyStrategy.class, corpus).isEmpty());
+    }
+}
@@ -0,0 +1,194 @@
+package thao.matchle;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntToLongFunction;
+import java.util.stream.LongStream;
+
+/**
+ * Partition class groups the keys of a corpus by the feedback they produce against a single guess.
+ * Keys in the same bucket can not be told apart after the guess, so the bucket sizes
+ * are all a strategy needs to score the guess.
+ */
+final class Partition {
+    /**
+     * Sizes of the non-empty buckets.
+     */
+    private final long[] sizes;
+    /**
+     * Largest number of distinct codes that are counted in a histogram rather than by sorting.
+     */
+    private static final long HISTOGRAM_LIMIT = 1 << 16;
+
+    private Partition(long[] sizes) {
+        assert sizes != null;
+        this.sizes = sizes;
+    }
+
+    /**
+     * Partitions the corpus by matching the guess against every key at once, column-wise.
+     * @param guess the guessed n-gram
+     * @param corpus the corpus of keys to partition
+     * @return the partition of the corpus induced by the guess
+     * @throws NullPointerException if guess or corpus is null
+     * @throws IllegalArgumentException if the guess is longer than FeedbackCode.MAX_LENGTH
+     */
+    static Partition of(NGram guess, Corpus corpus) {
+        Objects.requireNonNull(guess);
+        Objects.requireNonNull(corpus);
+
+        return fromCodes(corpus.columns().feedback(guess), guess.size());
+    }
+
+    /**
+     * Partitions a set of keys given the feedback code of every key.
+     * Short guesses are counted in a histogram indexed by code, longer ones by sorting the codes.
+     * @param codes the feedback code of every key, which may be reordered
+     * @param length the length of the guess the codes were computed for
+     * @return the partition of the keys
+     */
+    static Partition fromCodes(long[] codes, int length) {
+        assert codes != null;
+        return FeedbackCode.count(length) <= HISTOGRAM_LIMIT
+                ? new Partition(countByHistogram(codes, (int) FeedbackCode.count(length)))
+                : new Partition(countBySorting(codes));
+    }
+
+    /**
+     * Worst case score of a guess, abandoning the count as soon as a bucket grows past a bound.
+     * @param guess the guessed n-gram
+     * @param keys the keys to partition
+     * @param bound the score to beat
+     * @return the size of the largest bucket if it is at most bound, otherwise some value greater than bound
+     * @throws NullPointerException if guess or keys is null
+     */
+    static long worstCase(NGram guess, NGram[] keys, long bound) {
+        Objects.requireNonNull(guess);
+        Objects.requireNonNull(keys);
+        return worstCase(keys.length, key -> NGramMatcher.feedback(keys[key], guess), guess.size(), bound);
+    }
+
+    /**
+     * Worst case score given the feedback code of every key, abandoning the count as soon as a bucket grows past a bound.
+     * @param keyCount the number of keys
+     * @param codeOf the feedback code of the key at an index
+     * @param length the length of the guess the codes are computed for
+     * @param bound the score to beat
+     * @return the size of the largest bucket if it is at most bound, otherwise some value greater than bound
+     */
+    static long worstCase(int keyCount, IntToLongFunction codeOf, int length, long bound) {
+        assert codeOf != null;
+        long max = 0;
+        if (FeedbackCode.count(length) <= HISTOGRAM_LIMIT) {
+            long[] histogram = new long[(int) FeedbackCode.count(length)];
+            for (int key = 0; key < keyCount && max <= bound; key++) {
+                max = Math.max(max, ++histogram[(int) codeOf.applyAsLong(key)]);
+            }
+        } else {
+            Map<Long, Long> buckets = new HashMap<>();
+            for (int key = 0; key < keyCount && max <= bound; key++) {
+                max = Math.max(max, buckets.merge(codeOf.applyAsLong(key), 1L, Long::sum));
+            }
+        }
+        return max;
+    }
+
+    private static long[] countByHistogram(long[] codes, int codeCount) {
+        long[] histogram = new long[codeCount];
+        int buckets = 0;
+        for (long code : codes) {
+            if (histogram[(int) code]++ == 0) {
+                buckets++;
+            }
+        }
+        long[] sizes = new long[buckets];
+        int i = 0;
+        for (long size : histogram) {
+            if (size > 0) {
+                sizes[i++] = size;
+            }
+        }
+        return sizes;
+    }
+
+    private static long[] countBySorting(long[] codes) {
+        Arrays.sort(codes);
+        long[] sizes = new long[codes.length];
+        int buckets = 0;
+        for (int start = 0, end; start < codes.length; start = end) {
+            end = start + 1;
+            while (end < codes.length && codes[end] == codes[start]) {
+                end++;
+            }
+            sizes[buckets++] = end - start;
+        }
+        return Arrays.copyOf(sizes, buckets);
+    }
+
+    /**
+     * Getter for the number of non-empty buckets.
+     * @return the number of distinct feedbacks the guess can produce
+     */
+    int bucketCount() {
+        return sizes.length;
+    }
+
+    /**
+     * Allows for traversal of the bucket sizes using a stream.
+     * @return a stream of the bucket sizes
+     */
+    LongStream sizes() {
+        return LongStream.of(sizes);
+    }
+
+    /**
+     * Score of each key, which is the size of the bucket the key falls in.
+     * A bucket of size s contributes s keys that each score s.
+     * @return a stream with one score per key in the corpus
+     */
+    LongStream keyScores() {
+        return sizes().flatMap(size -> LongStream.generate(() -> size).limit(size));
+    }
+
+    /**
+     * Worst case score, which is the number of candidates left by the least informative feedback.
+     * @return the size of the largest bucket
+     */
+    long worstCase() {
+        long max = 0;
+        for (long size : sizes) {
+            max = Math.max(max, size);
+        }
+        return max;
+    }
+
+    /**
+     * Average case score, which is the sum of the key scores.
+     * Since every key scores the size of its bucket, this is the sum of the squared bucket sizes.
+     * @return the sum of the squared bucket sizes
+     */
+    long sumOfSquares() {
+        long sum = 0;
+        for (long size : sizes) {
+            sum += size * size;
+        }
+        return sum;
+    }
+
+    /**
+     * Shannon entropy of the feedback, assuming every key is equally likely.
+     * It is the expected number of bits of information the guess reveals about the key.
+     * @return the entropy of the bucket size distribution in bits
+     */
+    double entropy() {
+        long total = sizes().sum();
+        double entropy = 0;
+        for (long size : sizes) {
+            double probability = (double) size / total;
+            entropy -= probability * Math.log(probability);
+        }
+        return entropy / Math.log(2);
+    }
+}
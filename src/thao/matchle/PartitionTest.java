@@ -0,0 +1,57 @@
+package thao.matchle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PartitionTest {
+    private static final Corpus TEST_CORPUS = Corpus.Builder.empty(3)
+            .add(NGram.from("abc"))
+            .add(NGram.from("abd"))
+            .add(NGram.from("xyz"))
+            .build();
+
+    @Test
+    public void testBucketCount() {
+        // abc and abd both share no letter with xyz
+        Partition partition = Partition.of(NGram.from("xyz"), TEST_CORPUS);
+        assertEquals(2, partition.bucketCount());
+        assertEquals(3, partition.sizes().sum());
+    }
+
+    @Test
+    public void testWorstCase() {
+        assertEquals(2, Partition.of(NGram.from("xyz"), TEST_CORPUS).worstCase());
+        assertEquals(1, Partition.of(NGram.from("abc"), TEST_CORPUS).worstCase());
+    }
+
+    @Test
+    public void testSumOfSquares() {
+        assertEquals(5, Partition.of(NGram.from("xyz"), TEST_CORPUS).sumOfSquares());
+        assertEquals(3, Partition.of(NGram.from("abc"), TEST_CORPUS).sumOfSquares());
+    }
+
+    @Test
+    public void testKeyScoresAgreeWithSumOfSquares() {
+        Partition partition = Partition.of(NGram.from("xyz"), TEST_CORPUS);
+        assertEquals(TEST_CORPUS.size(), partition.keyScores().count());
+        assertEquals(partition.sumOfSquares(), partition.keyScores().sum());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testOfWithNullGuess() {
+        Partition.of(null, TEST_CORPUS);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testOfWithNullCorpus() {
+        Partition.of(NGram.from("abc"), null);
+    }
+
+    @Test
+    public void testEntropy() {
+        assertEquals(Math.log(3) / Math.log(2), Partition.of(NGram.from("abc"), TEST_CORPUS).entropy(), 1e-9);
+        // qqq shares no letter with any key, so it reveals nothing
+        assertEquals(0.0, Partition.of(NGram.from("qqq"), TEST_CORPUS).entropy(), 1e-9);
+    }
+}
@@ -0,0 +1,136 @@
+package thao.matchle;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Simulator class plays every word of a corpus as the key against a strategy, without any player,
+ * and reports how many guesses the strategy needs and how fast it plays.
+ * Games run in parallel. The strategies are deterministic, so with the shared GuessCache on, games reaching
+ * the same candidates reuse the guess computed by the first of them instead of searching again.
+ */
+public final class Simulator {
+    /**
+     * Outcome of a simulation.
+     * @param distribution the number of games won in each number of guesses
+     * @param games the number of games played, one per word of the corpus
+     * @param failures the number of games needing more than maxAttempts guesses
+     * @param wallMillis the time the simulation took, in milliseconds
+     */
+    public record Report(SortedMap<Integer, Long> distribution, long games, long failures, long wallMillis) {
+        /**
+         * Average number of guesses to find a key.
+         * @return the mean of the distribution
+         */
+        public double averageGuesses() {
+            long total = 0;
+            for (Map.Entry<Integer, Long> entry : distribution.entrySet()) {
+                total += entry.getKey() * entry.getValue();
+            }
+            return (double) total / games;
+        }
+
+        /**
+         * Largest number of guesses to find a key.
+         * @return the largest key of the distribution
+         */
+        public int maxGuesses() {
+            return distribution.lastKey();
+        }
+
+        /**
+         * Number of games played per second of wall time.
+         * @return the throughput of the simulation
+         */
+        public double gamesPerSecond() {
+            return games * 1000.0 / Math.max(1, wallMillis);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Games: ").append(games).append(", failures: ").append(failures).append("\n");
+            sb.append("Average guesses: ").append(String.format("%.4f", averageGuesses()))
+              .append(", max guesses: ").append(maxGuesses()).append("\n");
+            distribution.forEach((guesses, count) -> sb.append(guesses).append(": ").append(count).append("\n"));
+            sb.append("Wall time: ").append(wallMillis).append(" ms, ")
+              .append(String.format("%.1f", gamesPerSecond())).append(" games/s");
+            return sb.toString();
+        }
+    }
+
+    private final Corpus corpus;
+    private final Function<Corpus, ? extends MatchingStrategy> strategy;
+
+    private Simulator(Corpus corpus, Function<Corpus, ? extends MatchingStrategy> strategy) {
+        assert corpus != null;
+        assert strategy != null;
+        this.corpus = corpus;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Plays every word of a corpus as the key, in parallel.
+     * @param corpus the corpus the keys are drawn from
+     * @param strategy the factory building the strategy over a corpus of candidates, such as WorstCaseStrategy::from
+     * @param maxAttempts the number of guesses a game may take without counting as a failure
+     * @return the report of the simulation
+     * @throws NullPointerException if corpus or strategy is null
+     * @throws IllegalArgumentException if maxAttempts is less than or equal to 0
+     */
+    public static Report run(Corpus corpus, Function<Corpus, ? extends MatchingStrategy> strategy, int maxAttempts) {
+        Objects.requireNonNull(corpus);
+        Objects.requireNonNull(strategy);
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be greater than 0");
+        }
+        // Load the matrix before timing the games, which share it
+        FeedbackMatrix.registerFor(corpus);
+        Simulator simulator = new Simulator(corpus, strategy);
+        long startTime = System.nanoTime();
+        Map<Integer, Long> counts = corpus.view().parallelStream()
+                                          .collect(Collectors.groupingByConcurrent(simulator::play, Collectors.counting()));
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        SortedMap<Integer, Long> distribution = new TreeMap<>(counts);
+        long failures = distribution.tailMap(maxAttempts + 1).values().stream().mapToLong(Long::longValue).sum();
+        return new Report(Collections.unmodifiableSortedMap(distribution), corpus.size(), failures, wallMillis);
+    }
+
+    /**
+     * Plays one game until the key is found.
+     * @param key the key of the game
+     * @return the number of guesses made
+     */
+    private int play(NGram key) {
+        SolverSession session = SolverSession.from(corpus, strategy);
+        for (int made = 1; ; made++) {
+            NGram guess = session.guess();
+            if (guess.equals(key)) {
+                return made;
+            }
+            session.update(NGramMatcher.of(key, guess).match());
+        }
+    }
+
+    /**
+     * Simulates a strategy over a word list and prints the report.
+     * Usage: Simulator wordListPath wordSize strategy maxAttempts
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length < 4 || !OpeningBook.STRATEGIES.containsKey(args[2])) {
+            System.out.println("Usage: Simulator wordListPath wordSize strategy maxAttempts");
+            System.out.println("Strategies: " + OpeningBook.STRATEGIES.keySet());
+            return;
+        }
+        Corpus corpus = Game.corpusFromFile(args[0], Integer.parseInt(args[1]));
+        System.out.println(run(corpus, OpeningBook.STRATEGIES.get(args[2]), Integer.parseInt(args[3])));
+    }
+}
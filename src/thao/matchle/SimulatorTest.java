@@ -0,0 +1,47 @@
+package thao.matchle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SimulatorTest {
+    private static final Corpus TEST_CORPUS = Game.corpusFromFile("wordlist.txt", 5);
+
+    @Test
+    public void testRunPlaysEveryKey() {
+        Simulator.Report report = Simulator.run(TEST_CORPUS, WorstCaseStrategy::from, 6);
+        assertEquals(TEST_CORPUS.size(), report.games());
+        assertEquals(report.games(), report.distribution().values().stream().mapToLong(Long::longValue).sum());
+        // Exactly one key is found by the first guess
+        assertEquals(Long.valueOf(1), report.distribution().get(1));
+        assertTrue(report.gamesPerSecond() > 0);
+    }
+
+    @Test
+    public void testRunMatchesDecisionTree() {
+        Simulator.Report report = Simulator.run(TEST_CORPUS, AverageCaseStrategy::from, 6);
+        DecisionTree tree = DecisionTree.build(TEST_CORPUS, AverageCaseStrategy::from);
+        assertEquals(tree.averageGuesses(), report.averageGuesses(), 1e-9);
+        assertEquals(tree.depth(), report.maxGuesses());
+    }
+
+    @Test
+    public void testFailures() {
+        Simulator.Report report = Simulator.run(TEST_CORPUS, WorstCaseStrategy::from, 1);
+        assertEquals(TEST_CORPUS.size() - 1, report.failures());
+        Simulator.Report lenient = Simulator.run(TEST_CORPUS, WorstCaseStrategy::from, TEST_CORPUS.size());
+        assertEquals(0, lenient.failures());
+    }
+
+    @Test
+    public void testReportToString() {
+        String report = Simulator.run(TEST_CORPUS, EntropyStrategy::from, 6).toString();
+        assertTrue(report.contains("Games: " + TEST_CORPUS.size()));
+        assertTrue(report.contains("games/s"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRunWithInvalidAttempts() {
+        Simulator.run(TEST_CORPUS, WorstCaseStrategy::from, 0);
+    }
+}
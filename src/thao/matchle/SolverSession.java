@@ -0,0 +1,103 @@
+package thao.matchle;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * SolverSession class keeps the keys of a game that are still consistent with the feedback received so far.
+ * Each GuessResult narrows the candidates in place with a few bitset operations, and the strategy is only ever built
+ * over the surviving candidates, so every move after the first works on a much smaller corpus.
+ */
+public final class SolverSession {
+    /**
+     * Positional letter index of the corpus the session started from.
+     */
+    private final CorpusIndex index;
+    /**
+     * Bitset of the numbers in the index of the surviving candidates.
+     */
+    private final long[] candidates;
+    /**
+     * Number of surviving candidates.
+     */
+    private int remaining;
+    /**
+     * Builds the strategy used to pick a guess among the surviving candidates.
+     */
+    private final Function<Corpus, ? extends MatchingStrategy> strategy;
+
+    private SolverSession(CorpusIndex index, Function<Corpus, ? extends MatchingStrategy> strategy) {
+        assert index != null;
+        assert strategy != null;
+        this.index = index;
+        this.strategy = strategy;
+        this.candidates = index.all();
+        this.remaining = index.size();
+    }
+
+    /**
+     * Creates a new SolverSession where every word of the corpus is a candidate.
+     * @param corpus the corpus the key is drawn from
+     * @param strategy the factory building the strategy over a corpus of candidates, such as WorstCaseStrategy::from
+     * @return a new SolverSession instance
+     * @throws NullPointerException if corpus or strategy is null
+     */
+    public static SolverSession from(Corpus corpus, Function<Corpus, ? extends MatchingStrategy> strategy) {
+        Objects.requireNonNull(corpus);
+        Objects.requireNonNull(strategy);
+        FeedbackMatrix.registerFor(corpus);
+        return new SolverSession(corpus.index(), strategy);
+    }
+
+    /**
+     * Drops the candidates that would not have produced the feedback, with bitset operations over the corpus index.
+     * @param result the feedback of a guess against the key
+     * @throws NullPointerException if result is null
+     * @throws IllegalArgumentException if a letter of the guess has no match type
+     */
+    public void update(GuessResult result) {
+        Objects.requireNonNull(result);
+        remaining = index.retain(candidates, result);
+        if (Metrics.ENABLED) {
+            Metrics.CANDIDATES.record(remaining);
+        }
+    }
+
+    /**
+     * Getter for the number of surviving candidates.
+     * @return the number of keys still consistent with the feedback
+     */
+    public int remaining() {
+        return remaining;
+    }
+
+    /**
+     * Gets the surviving candidates as a corpus.
+     * @return a Corpus of the keys still consistent with the feedback
+     * @throws IllegalStateException if no candidate is left
+     */
+    public Corpus candidates() {
+        if (remaining == 0) {
+            throw new IllegalStateException("No candidate is consistent with the feedback");
+        }
+        return Corpus.ofDistinct(index.words(candidates, remaining));
+    }
+
+    /**
+     * Returns the best guess among the surviving candidates.
+     * A single candidate left is the key and is returned without running the strategy.
+     * @return the best guess as an NGram
+     * @throws IllegalStateException if no candidate is left
+     */
+    public NGram guess() {
+        if (remaining == 1) {
+            return index.words(candidates, 1)[0];
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        NGram guess = strategy.apply(candidates()).guess();
+        if (Metrics.ENABLED) {
+            Metrics.GUESSES.recordSince(start);
+        }
+        return guess;
+    }
+}
@@ -0,0 +1,64 @@
+package thao.matchle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SolverSessionTest {
+    private static final Corpus TEST_CORPUS = Corpus.Builder.empty(5)
+            .add(NGram.from("apple"))
+            .add(NGram.from("grape"))
+            .add(NGram.from("peach"))
+            .add(NGram.from("berry"))
+            .add(NGram.from("melon"))
+            .build();
+
+    @Test
+    public void testFromKeepsEveryCandidate() {
+        SolverSession session = SolverSession.from(TEST_CORPUS, WorstCaseStrategy::from);
+        assertEquals(TEST_CORPUS.size(), session.remaining());
+    }
+
+    @Test
+    public void testUpdateNarrowsCandidates() {
+        SolverSession session = SolverSession.from(TEST_CORPUS, WorstCaseStrategy::from);
+        NGram key = NGram.from("peach");
+        session.update(NGramMatcher.of(key, NGram.from("apple")).match());
+
+        assertTrue(session.remaining() < TEST_CORPUS.size());
+        assertTrue(session.candidates().contains(key));
+        for (NGram candidate : session.candidates()) {
+            assertEquals(NGramMatcher.feedback(key, NGram.from("apple")), NGramMatcher.feedback(candidate, NGram.from("apple")));
+        }
+    }
+
+    @Test
+    public void testGuessSolves() {
+        for (NGram key : TEST_CORPUS) {
+            SolverSession session = SolverSession.from(TEST_CORPUS, AverageCaseStrategy::from);
+            int guesses = 0;
+            NGram guess;
+            do {
+                guess = session.guess();
+                session.update(NGramMatcher.of(key, guess).match());
+                guesses++;
+            } while (!guess.equals(key));
+            assertTrue(guesses <= TEST_CORPUS.size());
+            assertEquals(1, session.remaining());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGuessWithoutCandidates() {
+        SolverSession session = SolverSession.from(TEST_CORPUS, WorstCaseStrategy::from);
+        // lemon is not in the corpus, so nothing is consistent with an exact match on it
+        session.update(NGramMatcher.of(NGram.from("lemon"), NGram.from("lemon")).match());
+        assertEquals(0, session.remaining());
+        session.guess();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testUpdateWithNullResult() {
+        SolverSession.from(TEST_CORPUS, WorstCaseStrategy::from).update(null);
+    }
+}
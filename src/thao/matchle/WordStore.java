@@ -0,0 +1,134 @@
+package thao.matchle;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * WordStore class holds distinct words in a fixed order and numbers them by their position.
+ * Words are looked up through an open-addressing table of word numbers, which takes a few bytes per word
+ * instead of a node per word, and which can be shared by every Corpus viewing a range of the store.
+ */
+final class WordStore {
+    /**
+     * Words of the store, numbered by their position.
+     */
+    private final NGram[] words;
+    /**
+     * Hash table of word numbers plus one, zero marking an empty slot. Its length is a power of two.
+     */
+    private final int[] table;
+
+    private WordStore(NGram[] words, int[] table) {
+        assert words != null;
+        assert table != null;
+        this.words = words;
+        this.table = table;
+    }
+
+    /**
+     * Creates a store of distinct words, keeping their order.
+     * @param words the distinct words, owned by the new store
+     * @return a new WordStore holding the words
+     * @throws NullPointerException if words or any of its elements is null
+     * @throws IllegalArgumentException if words holds duplicates
+     */
+    static WordStore of(NGram[] words) {
+        Objects.requireNonNull(words);
+        // At most half full, so that probes stay short
+        int[] table = new int[Math.max(2, Integer.highestOneBit(Math.max(1, words.length) * 2 - 1) * 2)];
+        int mask = table.length - 1;
+        for (int id = 0; id < words.length; id++) {
+            NGram n = Objects.requireNonNull(words[id]);
+            int slot = slot(n.hashCode(), mask);
+            for (; table[slot] != 0; slot = (slot + 1) & mask) {
+                if (words[table[slot] - 1].equals(n)) {
+                    throw new IllegalArgumentException("Duplicate word: " + n);
+                }
+            }
+            table[slot] = id + 1;
+        }
+        return new WordStore(words, table);
+    }
+
+    private static int slot(int hashCode, int mask) {
+        int hash = hashCode * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Getter for the number of words in the store.
+     * @return the number of words
+     */
+    int size() {
+        return words.length;
+    }
+
+    /**
+     * Getter for a word of the store.
+     * @param id the number of the word
+     * @return the word numbered id
+     * @throws IndexOutOfBoundsException if id is out of bounds
+     */
+    NGram get(int id) {
+        return words[id];
+    }
+
+    /**
+     * Looks up the number of a word.
+     * @param n the word to look up
+     * @return the number of the word, or -1 if the word is not in the store
+     * @throws NullPointerException if n is null
+     */
+    int indexOf(NGram n) {
+        Objects.requireNonNull(n);
+        int mask = table.length - 1;
+        for (int slot = slot(n.hashCode(), mask); table[slot] != 0; slot = (slot + 1) & mask) {
+            if (words[table[slot] - 1].equals(n)) {
+                return table[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Looks up the number of a word given by its letters, without creating an NGram.
+     * @param word the letters of the word to look up
+     * @return the number of the word, or -1 if the store does not hold it
+     * @throws NullPointerException if word is null
+     */
+    int indexOf(CharSequence word) {
+        Objects.requireNonNull(word);
+        int mask = table.length - 1;
+        for (int slot = slot(NGram.hashOf(word), mask); table[slot] != 0; slot = (slot + 1) & mask) {
+            if (words[table[slot] - 1].contentEquals(word)) {
+                return table[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets a range of the words as a list, without copying them.
+     * @param from the number of the first word, inclusive
+     * @param to the number of the last word, exclusive
+     * @return an unmodifiable list view of the words in the range
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    List<NGram> list(int from, int to) {
+        return Collections.unmodifiableList(Arrays.asList(words).subList(from, to));
+    }
+
+    /**
+     * Streams a range of the words.
+     * @param from the number of the first word, inclusive
+     * @param to the number of the last word, exclusive
+     * @return a stream of the words in the range
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    Stream<NGram> stream(int from, int to) {
+        return Arrays.stream(words, from, to);
+    }
+}
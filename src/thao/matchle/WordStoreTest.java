@@ -0,0 +1,62 @@
+package thao.matchle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+public class WordStoreTest {
+    @Test
+    public void testIndexOf() {
+        NGram[] words = new NGram[1000];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = NGram.from("w" + i);
+        }
+        WordStore store = WordStore.of(words.clone());
+        assertEquals(1000, store.size());
+        for (int i = 0; i < words.length; i++) {
+            assertEquals(i, store.indexOf(NGram.from("w" + i)));
+            assertSame(words[i], store.get(i));
+        }
+        assertEquals(-1, store.indexOf(NGram.from("w1000")));
+    }
+
+    @Test
+    public void testRanges() {
+        WordStore store = WordStore.of(new NGram[] {NGram.from("a"), NGram.from("b"), NGram.from("c")});
+        assertEquals(List.of(NGram.from("b"), NGram.from("c")), store.list(1, 3));
+        assertEquals(List.of(NGram.from("a")), store.stream(0, 1).toList());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testListIsUnmodifiable() {
+        WordStore.of(new NGram[] {NGram.from("a")}).list(0, 1).set(0, NGram.from("b"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicates() {
+        WordStore.of(new NGram[] {NGram.from("a"), NGram.from("a")});
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullWord() {
+        WordStore.of(new NGram[] {NGram.from("a"), null});
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(-1, WordStore.of(new NGram[0]).indexOf(NGram.from("a")));
+    }
+
+    @Test
+    public void testIndexOfLetters() {
+        WordStore store = WordStore.of(new NGram[] {NGram.from("crane"), NGram.from("héllo"), NGram.from("abcdefghijklmno")});
+        assertEquals(0, store.indexOf("crane"));
+        assertEquals(1, store.indexOf(new StringBuilder("héllo")));
+        assertEquals(2, store.indexOf("abcdefghijklmno"));
+        assertEquals(-1, store.indexOf("crate"));
+        assertEquals(-1, store.indexOf("cran"));
+        assertEquals(-1, WordStore.of(new NGram[0]).indexOf("crane"));
+    }
+}
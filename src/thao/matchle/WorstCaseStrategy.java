@@ -1,6 +1,13 @@
 package thao.matchle;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
 
 /**
  * WorstCaseStrategy class implements the MatchingStrategy interface and provides a method to find the best guess
@@ -8,13 +15,25 @@ import java.util.Objects;
  */
 public class WorstCaseStrategy implements MatchingStrategy {
     private final Corpus corpus;
+    /**
+     * Precomputed feedback of the corpus, or null if feedback is computed by matching.
+     */
+    private final FeedbackMatrix matrix;
+    /**
+     * Indices of the corpus words in the matrix, or null if there is no matrix.
+     */
+    private final int[] keys;
 
-    private WorstCaseStrategy(Corpus corpus) {
+    private WorstCaseStrategy(Corpus corpus, FeedbackMatrix matrix) {
+        assert corpus != null;
         this.corpus = corpus;
+        this.matrix = matrix;
+        this.keys = matrix == null ? null : matrix.indicesOf(corpus);
     }
 
     /**
      * Factory method to create a new WorstCaseStrategy object from a given corpus.
+     * Feedback is looked up in a registered FeedbackMatrix covering the corpus, if there is one.
      *
      * @param corpus the corpus to use for the strategy
      * @return a new WorstCaseStrategy object
@@ -22,12 +41,29 @@ public class WorstCaseStrategy implements MatchingStrategy {
      */
     public static WorstCaseStrategy from(Corpus corpus) {
         Objects.requireNonNull(corpus);
-        return new WorstCaseStrategy(corpus);
+        return new WorstCaseStrategy(corpus, FeedbackMatrix.lookup(corpus));
+    }
+
+    /**
+     * Creates a new WorstCaseStrategy instance that looks feedback up in a precomputed matrix
+     * instead of matching the guesses against the corpus.
+     *
+     * @param corpus The corpus to be used for the strategy.
+     * @param matrix The feedback matrix covering every word of the corpus.
+     * @return A new WorstCaseStrategy instance.
+     * @throws NullPointerException if corpus or matrix is null.
+     * @throws IllegalArgumentException if the matrix does not cover the corpus.
+     */
+    static WorstCaseStrategy from(Corpus corpus, FeedbackMatrix matrix) {
+        Objects.requireNonNull(corpus);
+        Objects.requireNonNull(matrix);
+        return new WorstCaseStrategy(corpus, matrix);
     }
 
     /**
      * Calculates the score of a guess in the corpus using a worst-case strategy, 
      * that is choosing the guess with maximum score among all ngrams in corpus.
+     * The maximum key score is the size of the largest feedback bucket.
      * @param guess the NGram representing the guess
      * @return the score of the guess in the corpus in the Worst Case strategy
      */
@@ -36,16 +72,69 @@ public class WorstCaseStrategy implements MatchingStrategy {
         if (corpus.isEmpty()) {
             throw new IllegalStateException("Can not calculate the score of an empty corpus.");
         }
-        return score(guess, stream -> stream.max().orElseThrow(() -> new IllegalStateException("No maximum value found")), corpus);
+        return FeedbackMatrix.partition(guess, corpus, matrix, keys).worstCase();
+    }
+
+    /**
+     * Calculates the worst case score of a guess, giving up as soon as it can not be at most a bound.
+     * @param guess the NGram representing the guess
+     * @param keys the corpus words, matched against the guess if the matrix does not have it
+     * @param bound the score to beat
+     * @return the worst case score if it is at most bound, otherwise some value greater than bound
+     */
+    private long scoreWorstCase(NGram guess, NGram[] keys, long bound) {
+        int index = matrix == null ? -1 : matrix.indexOf(guess);
+        return index < 0 ? Partition.worstCase(guess, keys, bound) : matrix.worstCase(index, this.keys, bound);
     }
 
     /**
      * Returns the best guess based on the worst-case strategy.
      * This method finds the NGram in the corpus that has the maximum score when compared to the given guess.
+     * Candidates are searched by branch and bound: a candidate is abandoned as soon as one of its feedback buckets
+     * outgrows the best score found so far. Candidates covering the most frequent letters are tried first so that
+     * a good score is found early. Abandoned candidates can not tie the best score, so the guess is unchanged.
+     * The search is skipped if a registered OpeningBook or the shared GuessCache has the guess for this corpus.
      *
      * @return The best guess as an NGram.
      */
     public NGram guess() {
-        return bestGuess(ngram -> scoreWorstCase(ngram), corpus);
+        return OpeningBook.lookup(WorstCaseStrategy.class, corpus)
+                          .orElseGet(() -> GuessCache.shared().get(WorstCaseStrategy.class, corpus, this::search));
+    }
+
+    /**
+     * Searches the corpus for the best guess by branch and bound.
+     * @return The best guess as an NGram.
+     */
+    private NGram search() {
+        NGram[] keys = corpus.stream().toArray(NGram[]::new);
+        NGram[] candidates = byLetterCoverage(keys);
+        AtomicLong incumbent = new AtomicLong(scoreWorstCase(candidates[0]));
+        return BestGuessSearch.minimize(candidates, ngram -> {
+            long score = scoreWorstCase(ngram, keys, incumbent.get());
+            incumbent.accumulateAndGet(score, Math::min);
+            return score;
+        });
+    }
+
+    /**
+     * Orders words by how many words contain their letters, the best covering words first.
+     * A guess made of frequent letters tends to split the corpus evenly, which makes it a cheap guide to a good score.
+     * @param words the words to order
+     * @return a new array of the words, by decreasing letter coverage
+     */
+    static NGram[] byLetterCoverage(NGram[] words) {
+        assert words != null;
+        Map<Character, Long> frequency = Arrays.stream(words)
+                .flatMap(word -> word.stream().map(IndexedCharacter::character).distinct())
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        ToLongFunction<NGram> coverage = word -> word.stream()
+                .map(IndexedCharacter::character)
+                .distinct()
+                .mapToLong(frequency::get)
+                .sum();
+        return Arrays.stream(words)
+                     .sorted(Comparator.comparingLong(coverage).reversed())
+                     .toArray(NGram[]::new);
     }
 }
@@ -50,4 +50,21 @@ public class WorstCaseStrategyTest {
         long size = TEST_STRATEGY.size(result, TEST_CORPUS);
         assertTrue("Size should be non-negative", size >= 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGuessMatchesExhaustiveSearch() {
+        Corpus corpus = Game.corpusFromFile("wordlist.txt", 5);
+        NGram exhaustive = BestGuessSearch.minimize(corpus.stream().toArray(NGram[]::new),
+                                                    ngram -> WorstCaseStrategy.from(corpus).scoreWorstCase(ngram));
+        assertEquals(exhaustive, WorstCaseStrategy.from(corpus).guess());
+        assertEquals(exhaustive, WorstCaseStrategy.from(corpus, FeedbackMatrix.compute(corpus)).guess());
+    }
+
+    @Test
+    public void testByLetterCoverage() {
+        NGram[] ordered = WorstCaseStrategy.byLetterCoverage(TEST_CORPUS.stream().toArray(NGram[]::new));
+        assertEquals(TEST_CORPUS.size(), ordered.length);
+        // the letters of grape appear 13 times across the corpus words, more than any other word
+        assertEquals(NGram.from("grape"), ordered[0]);
+    }
+}